@@ -16,12 +16,20 @@
 
 package dk.clanie.actor;
 
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
 import org.springframework.aop.framework.Advised;
 import org.springframework.aop.framework.AopInfrastructureBean;
 import org.springframework.aop.framework.ProxyConfig;
 import org.springframework.aop.framework.ProxyFactory;
 import org.springframework.aop.support.AopUtils;
 import org.springframework.beans.factory.BeanClassLoaderAware;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.core.Ordered;
@@ -36,6 +44,10 @@ import org.springframework.util.ClassUtils;
  * exposed proxy (either an existing AOP proxy or a newly generated proxy that
  * implements all of the target's interfaces).
  * <p/>
+ * The methods of each actor are checked when the proxy is created, so that
+ * misconfigured methods, for example incorrectly annotated with {@link Chunked},
+ * fail the creation of the bean rather than the first invocation.
+ * <p/>
  * Based on Spring 3.0's AsyncAnnotationBeanPostProcessor.
  * 
  * @author Claus Nielsen
@@ -44,7 +56,7 @@ import org.springframework.util.ClassUtils;
  */
 @SuppressWarnings("serial")
 public class ActorAnnotationBeanPostProcessor extends ProxyConfig
-		implements BeanPostProcessor, BeanClassLoaderAware, InitializingBean, Ordered {
+		implements BeanPostProcessor, BeanClassLoaderAware, InitializingBean, DisposableBean, Ordered {
 
 	private ClassLoader beanClassLoader = ClassUtils.getDefaultClassLoader();
 
@@ -54,6 +66,16 @@ public class ActorAnnotationBeanPostProcessor extends ProxyConfig
 	 */
 	private int order = Ordered.LOWEST_PRECEDENCE;
 
+	/**
+	 * Dispatcher running the actors, or null to give each actor its own thread.
+	 */
+	private AffinityDispatcher dispatcher;
+
+	/**
+	 * The executors serving as mailboxes for the actors, by bean name.
+	 */
+	private final Map<String, Executor> executors = new ConcurrentHashMap<String, Executor>();
+
 
 	public void setBeanClassLoader(ClassLoader classLoader) {
 		this.beanClassLoader = classLoader;
@@ -62,6 +84,26 @@ public class ActorAnnotationBeanPostProcessor extends ProxyConfig
 	public void afterPropertiesSet() {
 	}
 
+	/**
+	 * Shut down the threads of the actors not run by a dispatcher, and wait
+	 * up to 10 seconds for them to terminate.
+	 */
+	public void destroy() throws InterruptedException {
+		for (Executor executor : executors.values()) {
+			if (executor instanceof ThreadPoolTaskExecutor) {
+				((ThreadPoolTaskExecutor) executor).shutdown();
+			}
+		}
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		for (Executor executor : executors.values()) {
+			if (executor instanceof ThreadPoolTaskExecutor) {
+				((ThreadPoolTaskExecutor) executor).getThreadPoolExecutor()
+						.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+			}
+		}
+		executors.clear();
+	}
+
 	public int getOrder() {
 		return this.order;
 	}
@@ -70,6 +112,39 @@ public class ActorAnnotationBeanPostProcessor extends ProxyConfig
 		this.order = order;
 	}
 
+	/**
+	 * Set a dispatcher to run the actors on a shared pool of worker threads.
+	 * <p/>
+	 * By default each actor gets its own thread.
+	 * 
+	 * @param dispatcher
+	 */
+	public void setDispatcher(AffinityDispatcher dispatcher) {
+		this.dispatcher = dispatcher;
+	}
+
+	/**
+	 * Get the number of messages waiting in each actor's mailbox.
+	 * <p/>
+	 * Intended for monitoring; the numbers are only approximate while the
+	 * actors are busy.
+	 * 
+	 * @return map from bean name to number of queued messages, sorted by bean name
+	 */
+	public Map<String, Integer> getQueueSizes() {
+		Map<String, Integer> queueSizes = new TreeMap<String, Integer>();
+		for (Map.Entry<String, Executor> entry : executors.entrySet()) {
+			Executor executor = entry.getValue();
+			if (executor instanceof AffinityDispatcher.Mailbox) {
+				queueSizes.put(entry.getKey(), ((AffinityDispatcher.Mailbox) executor).size());
+			}
+			else {
+				queueSizes.put(entry.getKey(), ((ThreadPoolTaskExecutor) executor).getThreadPoolExecutor().getQueue().size());
+			}
+		}
+		return queueSizes;
+	}
+
 
 	public Object postProcessBeforeInitialization(Object bean, String beanName) {
 		return bean;
@@ -85,12 +160,22 @@ public class ActorAnnotationBeanPostProcessor extends ProxyConfig
 		if (annotation != null) {
 //		if (AopUtils.canApply(this.asyncAnnotationAdvisor, targetClass)) {
 
-			ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-			executor.setMaxPoolSize(1);
-			executor.setDaemon(true);
-			String threadNamePrefix = beanName + ",";
-			executor.setThreadNamePrefix(threadNamePrefix);
-			executor.initialize();
+			validateMethods(bean, targetClass);
+
+			Executor executor;
+			if (dispatcher != null) {
+				executor = dispatcher.createMailbox(beanName);
+			}
+			else {
+				ThreadPoolTaskExecutor threadPoolExecutor = new ThreadPoolTaskExecutor();
+				threadPoolExecutor.setMaxPoolSize(1);
+				threadPoolExecutor.setDaemon(true);
+				String threadNamePrefix = beanName + ",";
+				threadPoolExecutor.setThreadNamePrefix(threadNamePrefix);
+				threadPoolExecutor.initialize();
+				executor = threadPoolExecutor;
+			}
+			executors.put(beanName, executor);
 
 			ActorAnnotationAdvisor actorAnnotationAdvisor = new ActorAnnotationAdvisor(executor);
 
@@ -111,4 +196,27 @@ public class ActorAnnotationBeanPostProcessor extends ProxyConfig
 		}
 	}
 
+	/**
+	 * Check the methods the proxy will intercept - those of the proxied
+	 * interfaces, or of the target class when proxying the class.
+	 */
+	private void validateMethods(Object bean, Class<?> targetClass) {
+		Class<?>[] interfaces;
+		boolean proxyTargetClass;
+		if (bean instanceof Advised) {
+			interfaces = ((Advised) bean).getProxiedInterfaces();
+			proxyTargetClass = ((Advised) bean).isProxyTargetClass();
+		}
+		else {
+			interfaces = ClassUtils.getAllInterfacesForClass(targetClass, this.beanClassLoader);
+			proxyTargetClass = isProxyTargetClass();
+		}
+		Class<?>[] proxiedTypes = proxyTargetClass || interfaces.length == 0 ? new Class<?>[] {targetClass} : interfaces;
+		for (Class<?> proxiedType : proxiedTypes) {
+			for (Method method : proxiedType.getMethods()) {
+				ActorExecutionInterceptor.validate(method, targetClass);
+			}
+		}
+	}
+
 }
@@ -16,13 +16,21 @@
 
 package dk.clanie.actor;
 
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
 
 import org.aopalliance.intercept.MethodInterceptor;
 import org.aopalliance.intercept.MethodInvocation;
+import org.reactivestreams.Publisher;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.aop.support.AopUtils;
 import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.core.task.support.TaskExecutorAdapter;
 import org.springframework.util.Assert;
@@ -37,7 +45,8 @@ import org.springframework.util.ReflectionUtils;
  * supported. However, for asynchronous execution the return type is constrained to
  * either <code>void</code> or <code>java.util.concurrent.Future</code>. In the latter
  * case, the Future handle returned from the proxy will be an actual asynchronous Future
- * that can be used to track the result of the asynchronous method execution. However,
+ * that can be used to track the result of the asynchronous method execution - an
+ * {@link ActorFuture}, which also accepts completion callbacks. However,
  * since the target method needs to implement the same signature, it will have to return
  * a temporary Future handle that just passes the return value through (like Spring's
  * {@link org.springframework.scheduling.annotation.AsyncResult} or EJB 3.1's
@@ -47,6 +56,23 @@ import org.springframework.util.ReflectionUtils;
  * associated AsyncTaskExecutor, but the calling thread is blocked while the method is
  * executed.
  * <p/>
+ * Methods returning a {@link Publisher} return immediately with a Publisher
+ * which, for each subscription, invokes the method on the actor's thread and
+ * then submits every request for more elements to the actor as a separate
+ * message. This way large results can be streamed in chunks driven by the
+ * subscriber's demand, while other messages to the actor are processed between
+ * the chunks. As with <code>Future</code>, the target method will typically
+ * return a helper, like {@link IteratorPublisher}, but the method must declare
+ * <code>org.reactivestreams.Publisher</code> itself as return type.
+ * <p/>
+ * Methods annotated with {@link Chunked} have their collection argument split
+ * into chunks, each processed as a separate message to the actor. Such methods
+ * can't return a Publisher.
+ * <p/>
+ * Misconfigured methods are rejected with an <code>IllegalStateException</code>
+ * when invoked, and by {@link ActorAnnotationBeanPostProcessor} when the actor
+ * is created; see {@link #validate(Method, Class)}.
+ * <p/>
  * Based on Spring 3.0's AsyncExecutionInterceptor.
  *
  * @author Claus Nielsen
@@ -57,6 +83,13 @@ public class ActorExecutionInterceptor implements MethodInterceptor, Ordered {
 
 	private final AsyncTaskExecutor executor;
 
+	/**
+	 * The executor given, before adapting it.
+	 */
+	private final Executor targetExecutor;
+
+	private final Map<Method, ChunkSpec> chunkSpecs = new ConcurrentHashMap<Method, ChunkSpec>();
+
 
 	/**
 	 * Create a new AsyncExecutionInterceptor.
@@ -66,6 +99,7 @@ public class ActorExecutionInterceptor implements MethodInterceptor, Ordered {
 	public ActorExecutionInterceptor(AsyncTaskExecutor asyncExecutor) {
 		Assert.notNull(asyncExecutor, "TaskExecutor must not be null");
 		this.executor = asyncExecutor;
+		this.targetExecutor = asyncExecutor;
 	}
 
 	/**
@@ -76,17 +110,47 @@ public class ActorExecutionInterceptor implements MethodInterceptor, Ordered {
 	 */
 	public ActorExecutionInterceptor(Executor asyncExecutor) {
 		this.executor = new TaskExecutorAdapter(asyncExecutor);
+		this.targetExecutor = asyncExecutor;
+	}
+
+
+	/**
+	 * Check that a method can be invoked through the interceptor.
+	 * 
+	 * @param method the method invoked through the proxy
+	 * @param targetClass the class of the actor, or null if unknown
+	 * @throws IllegalStateException if the method is annotated with {@link Chunked}
+	 *         but doesn't meet its requirements, or if it returns a subtype of Publisher
+	 */
+	static void validate(Method method, Class<?> targetClass) {
+		Chunked chunked = findChunked(method, targetClass);
+		if (chunked != null) {
+			new ChunkSpec(method, chunked);
+		}
+		checkPublisherReturnType(method);
 	}
 
 
 	public Object invoke(final MethodInvocation invocation) throws Throwable {
-		@SuppressWarnings("rawtypes")
-		Future result = this.executor.submit(new Callable<Object>() {
+		ChunkSpec chunkSpec = getChunkSpec(invocation);
+		if (Publisher.class.isAssignableFrom(invocation.getMethod().getReturnType())) {
+			checkPublisherReturnType(invocation.getMethod());
+			return new ActorPublisher(invocation, this.executor);
+		}
+		if (chunkSpec != NOT_CHUNKED) {
+			if (!(invocation instanceof ProxyMethodInvocation)) {
+				throw new IllegalStateException("@Chunked requires a ProxyMethodInvocation, got " + invocation.getClass().getName());
+			}
+			ActorFuture<Object> result = new ChunkedInvocation((ProxyMethodInvocation) invocation,
+					chunkSpec.argumentIndex, chunkSpec.size, this.executor).start();
+			return returnResult(invocation, result);
+		}
+		ActorFutureTask<Object> result = new ActorFutureTask<Object>(new Callable<Object>() {
 			public Object call() throws Exception {
 				try {
 					Object result = invocation.proceed();
 					if (result instanceof Future) {
-						return ((Future) result).get();
+						return ((Future<?>) result).get();
 					}
 				}
 				catch (Throwable ex) {
@@ -95,11 +159,20 @@ public class ActorExecutionInterceptor implements MethodInterceptor, Ordered {
 				return null;
 			}
 		});
+		this.executor.execute(result);
+		return returnResult(invocation, result);
+	}
+
+	/**
+	 * Return the Future, the result or nothing, depending on the method's return type.
+	 */
+	private Object returnResult(MethodInvocation invocation, Future<Object> result) throws Throwable {
 		Class<?> returnType = invocation.getMethod().getReturnType();
 		if (Future.class.isAssignableFrom(returnType)) {
 			return result;
 		}
 		else if (Void.TYPE != returnType) {
+			AffinityDispatcher.awaitOnWorker(result, this.targetExecutor);
 			try {
 				return result.get();
 			}
@@ -114,4 +187,99 @@ public class ActorExecutionInterceptor implements MethodInterceptor, Ordered {
 		return Ordered.HIGHEST_PRECEDENCE;
 	}
 
+
+	private ChunkSpec getChunkSpec(MethodInvocation invocation) {
+		Method method = invocation.getMethod();
+		ChunkSpec chunkSpec = this.chunkSpecs.get(method);
+		if (chunkSpec == null) {
+			Chunked chunked = findChunked(method,
+					invocation.getThis() == null ? null : AopUtils.getTargetClass(invocation.getThis()));
+			chunkSpec = chunked == null ? NOT_CHUNKED : new ChunkSpec(method, chunked);
+			this.chunkSpecs.put(method, chunkSpec);
+		}
+		return chunkSpec;
+	}
+
+	/**
+	 * Find the Chunked annotation on the method or on its implementation in the target class.
+	 */
+	private static Chunked findChunked(Method method, Class<?> targetClass) {
+		Chunked chunked = AnnotationUtils.findAnnotation(method, Chunked.class);
+		if (chunked == null && targetClass != null) {
+			Method specificMethod = AopUtils.getMostSpecificMethod(method, targetClass);
+			chunked = AnnotationUtils.findAnnotation(specificMethod, Chunked.class);
+		}
+		return chunked;
+	}
+
+	/**
+	 * The proxy can only return its own Publisher, so methods must declare Publisher itself.
+	 */
+	private static void checkPublisherReturnType(Method method) {
+		Class<?> returnType = method.getReturnType();
+		if (Publisher.class.isAssignableFrom(returnType) && !returnType.isAssignableFrom(ActorPublisher.class)) {
+			throw new IllegalStateException("Actor method must declare Publisher, not a subtype of it, as return type: "
+					+ method);
+		}
+	}
+
+
+	private static final ChunkSpec NOT_CHUNKED = new ChunkSpec();
+
+	/**
+	 * How to split the arguments of a {@link Chunked} method.
+	 */
+	private static class ChunkSpec {
+
+		final int argumentIndex;
+		final int size;
+
+		private ChunkSpec() {
+			this.argumentIndex = -1;
+			this.size = 0;
+		}
+
+		ChunkSpec(Method method, Chunked chunked) {
+			if (chunked.size() <= 0) {
+				throw new IllegalStateException("@Chunked size must be positive on " + method);
+			}
+			Class<?> returnType = method.getReturnType();
+			if (Void.TYPE != returnType && !Future.class.isAssignableFrom(returnType)) {
+				throw new IllegalStateException("@Chunked method must return void or Future: " + method);
+			}
+			this.argumentIndex = findChunkedArgument(method, chunked.parameter());
+			this.size = chunked.size();
+		}
+
+		private static int findChunkedArgument(Method method, int parameter) {
+			Class<?>[] parameterTypes = method.getParameterTypes();
+			if (parameter >= 0) {
+				if (parameter >= parameterTypes.length || !isChunkable(parameterTypes[parameter])) {
+					throw new IllegalStateException("@Chunked parameter " + parameter
+							+ " is not a List, Collection or Iterable parameter: " + method);
+				}
+				return parameter;
+			}
+			int found = -1;
+			for (int i = 0; i < parameterTypes.length; i++) {
+				if (isChunkable(parameterTypes[i])) {
+					if (found >= 0) {
+						throw new IllegalStateException("@Chunked method has more than one List, Collection or Iterable"
+								+ " parameter - select one with the parameter attribute: " + method);
+					}
+					found = i;
+				}
+			}
+			if (found < 0) {
+				throw new IllegalStateException("@Chunked method has no List, Collection or Iterable parameter: " + method);
+			}
+			return found;
+		}
+
+		private static boolean isChunkable(Class<?> parameterType) {
+			return Iterable.class.isAssignableFrom(parameterType) && parameterType.isAssignableFrom(List.class);
+		}
+
+	}
+
 }
@@ -0,0 +1,45 @@
+/**
+ * Copyright (C) 2026, the clanie-aspects contributors
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package dk.clanie.actor;
+
+import java.util.concurrent.Future;
+
+/**
+ * Future which accepts callbacks to be notified on completion.
+ * <p/>
+ * The Futures returned from actor methods returning <code>Future</code> are
+ * ActorFutures, so waiting for results from actors doesn't have to block a thread.
+ * 
+ * @param <V> the result type
+ * @see ScatterGather
+ */
+public interface ActorFuture<V> extends Future<V> {
+
+	/**
+	 * Register a callback to be notified when this Future completes.
+	 * <p/>
+	 * If the Future has already completed the callback is notified immediately,
+	 * on the calling thread. Otherwise it is notified on the thread completing
+	 * the Future, which for actors is the actor's own thread, so callbacks should
+	 * be quick and must not block.
+	 * 
+	 * @param callback the callback
+	 */
+	void addCallback(FutureCallback<? super V> callback);
+
+}
@@ -0,0 +1,127 @@
+/**
+ * Copyright (C) 2026, the clanie-aspects contributors
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package dk.clanie.actor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * FutureTask implementing {@link ActorFuture}.
+ * <p/>
+ * Besides being used for the tasks submitted to actors, an ActorFutureTask
+ * created without a Callable can be completed explicitly, through
+ * {@link #complete(Object)} or {@link #fail(Throwable)}.
+ * 
+ * @param <V> the result type
+ */
+public class ActorFutureTask<V> extends FutureTask<V> implements ActorFuture<V> {
+
+	private static final Callable<Object> NOT_RUNNABLE = new Callable<Object>() {
+		public Object call() throws Exception {
+			throw new IllegalStateException("ActorFutureTask must be completed explicitly.");
+		}
+	};
+
+	private List<FutureCallback<? super V>> callbacks = new ArrayList<FutureCallback<? super V>>(1);
+
+
+	/**
+	 * Create a new ActorFutureTask which will execute the given Callable when run.
+	 * 
+	 * @param callable
+	 */
+	public ActorFutureTask(Callable<V> callable) {
+		super(callable);
+	}
+
+	/**
+	 * Create a new ActorFutureTask which must be completed explicitly.
+	 */
+	@SuppressWarnings("unchecked")
+	public ActorFutureTask() {
+		super((Callable<V>) NOT_RUNNABLE);
+	}
+
+
+	public void addCallback(FutureCallback<? super V> callback) {
+		synchronized (this) {
+			if (callbacks != null) {
+				callbacks.add(callback);
+				return;
+			}
+		}
+		notifyCallback(callback);
+	}
+
+	/**
+	 * Complete this Future with the given result, unless it's already completed.
+	 * 
+	 * @param result
+	 */
+	public void complete(V result) {
+		set(result);
+	}
+
+	/**
+	 * Complete this Future with the given exception, unless it's already completed.
+	 * 
+	 * @param cause
+	 */
+	public void fail(Throwable cause) {
+		setException(cause);
+	}
+
+	@Override
+	protected void done() {
+		List<FutureCallback<? super V>> toNotify;
+		synchronized (this) {
+			toNotify = callbacks;
+			callbacks = null;
+		}
+		for (FutureCallback<? super V> callback : toNotify) {
+			notifyCallback(callback);
+		}
+	}
+
+	private void notifyCallback(FutureCallback<? super V> callback) {
+		V result;
+		try {
+			result = get();
+		}
+		catch (ExecutionException ex) {
+			callback.onFailure(ex.getCause());
+			return;
+		}
+		catch (CancellationException ex) {
+			callback.onFailure(ex);
+			return;
+		}
+		catch (InterruptedException ex) {
+			// Can't happen - the Future is done
+			Thread.currentThread().interrupt();
+			callback.onFailure(ex);
+			return;
+		}
+		callback.onSuccess(result);
+	}
+
+}
@@ -0,0 +1,151 @@
+/**
+ * Copyright (C) 2026, the clanie-aspects contributors
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package dk.clanie.actor;
+
+import java.util.concurrent.Executor;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.springframework.aop.ProxyMethodInvocation;
+
+/**
+ * Publisher returned to callers of actor methods returning a {@link Publisher}.
+ * <p/>
+ * Each subscription invokes the actor method on the actor's thread and subscribes
+ * to the Publisher it returns. Every {@link Subscription#request(long)} and
+ * {@link Subscription#cancel()} is then submitted to the actor as a separate
+ * message, so elements are produced on the actor's thread in chunks of the
+ * requested size, and other messages to the actor are processed in between.
+ * 
+ * @see ActorExecutionInterceptor
+ */
+class ActorPublisher implements Publisher<Object> {
+
+	private final MethodInvocation invocation;
+
+	private final Executor executor;
+
+
+	ActorPublisher(MethodInvocation invocation, Executor executor) {
+		this.invocation = invocation;
+		this.executor = executor;
+	}
+
+
+	public void subscribe(final Subscriber<? super Object> subscriber) {
+		if (subscriber == null) {
+			throw new NullPointerException("Subscriber must not be null.");
+		}
+		// Every subscription invokes the actor method anew.
+		final MethodInvocation subscription = (invocation instanceof ProxyMethodInvocation)
+				? ((ProxyMethodInvocation) invocation).invocableClone()
+				: invocation;
+		executor.execute(new Runnable() {
+			public void run() {
+				Publisher<?> target;
+				try {
+					target = (Publisher<?>) subscription.proceed();
+				}
+				catch (Throwable ex) {
+					subscriber.onSubscribe(new MailboxSubscription(null));
+					subscriber.onError(ex);
+					return;
+				}
+				if (target == null) {
+					subscriber.onSubscribe(new MailboxSubscription(null));
+					subscriber.onError(new NullPointerException(
+							"Actor method " + invocation.getMethod() + " returned null."));
+					return;
+				}
+				target.subscribe(new Relay(subscriber));
+			}
+		});
+	}
+
+
+	/**
+	 * Passes signals from the actor's Publisher on to the subscriber.
+	 * <p/>
+	 * All signals are already delivered on the actor's thread, so only the
+	 * Subscription needs wrapping.
+	 */
+	private class Relay implements Subscriber<Object> {
+
+		private final Subscriber<? super Object> subscriber;
+
+		Relay(Subscriber<? super Object> subscriber) {
+			this.subscriber = subscriber;
+		}
+
+		public void onSubscribe(Subscription subscription) {
+			subscriber.onSubscribe(new MailboxSubscription(subscription));
+		}
+
+		public void onNext(Object element) {
+			subscriber.onNext(element);
+		}
+
+		public void onError(Throwable cause) {
+			subscriber.onError(cause);
+		}
+
+		public void onComplete() {
+			subscriber.onComplete();
+		}
+
+	}
+
+
+	/**
+	 * Subscription that submits demand and cancellation to the actor's mailbox.
+	 */
+	private class MailboxSubscription implements Subscription {
+
+		private final Subscription target;
+
+		MailboxSubscription(Subscription target) {
+			this.target = target;
+		}
+
+		public void request(final long n) {
+			if (target == null) {
+				return;
+			}
+			executor.execute(new Runnable() {
+				public void run() {
+					target.request(n);
+				}
+			});
+		}
+
+		public void cancel() {
+			if (target == null) {
+				return;
+			}
+			executor.execute(new Runnable() {
+				public void run() {
+					target.cancel();
+				}
+			});
+		}
+
+	}
+
+}
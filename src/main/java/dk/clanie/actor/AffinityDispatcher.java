@@ -0,0 +1,458 @@
+/**
+ * Copyright (C) 2026, the clanie-aspects contributors
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package dk.clanie.actor;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.util.Assert;
+
+import dk.clanie.logging.LoggingSupport;
+
+/**
+ * Runs many actors on a fixed number of worker threads, keeping actors on the
+ * same worker to improve cache locality.
+ * <p/>
+ * Each actor gets a mailbox, which is scheduled on a worker when it receives
+ * a message. A mailbox is processed by one worker at a time, up to
+ * {@link #setThroughput(int) throughput} messages before yielding the worker
+ * to other mailboxes, so actors still execute one message at a time.
+ * <p/>
+ * A mailbox receiving a message from an actor running on a worker is scheduled
+ * to run on that same worker, right after the sending actor yields, so actors
+ * talking to each other share a CPU cache. A mailbox receiving a message from
+ * any other thread is scheduled on the worker which last ran it. Idle workers
+ * only steal mailboxes from workers which are falling behind - workers with
+ * more than one mailbox waiting, or which have been busy with another mailbox
+ * for a while.
+ * <p/>
+ * When an actor calls a method returning a result (not <code>void</code> or a
+ * <code>Future</code>) on another actor, its worker processes the callee's
+ * mailbox while waiting, if no other worker has started it, so the call
+ * completes even with a single worker. The worker runs no other actors until
+ * the call returns, so calls can't wait on each other in ways they couldn't
+ * with a thread per actor - but, as with a thread per actor, actors calling
+ * each other in a cycle deadlock. While the callee runs on another worker,
+ * or the actor blocks in other ways, for example by calling <code>get()</code>
+ * on another actor's Future, its worker is blocked, reducing the number of
+ * workers available. Prefer Futures with callbacks between actors on the same
+ * dispatcher.
+ * <p/>
+ * Enable by setting it on the {@link ActorAnnotationBeanPostProcessor}:
+ * <pre>
+ * &lt;bean class="dk.clanie.actor.ActorAnnotationBeanPostProcessor"&gt;
+ *     &lt;property name="dispatcher"&gt;
+ *         &lt;bean class="dk.clanie.actor.AffinityDispatcher"/&gt;
+ *     &lt;/property&gt;
+ * &lt;/bean&gt;
+ * </pre>
+ */
+public class AffinityDispatcher implements DisposableBean, LoggingSupport {
+
+	private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+	/**
+	 * How long a worker must have been busy before its only waiting mailbox may be stolen.
+	 */
+	private static final long STEAL_THRESHOLD_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+	private static final long JOIN_TIMEOUT_MILLIS = 10000L;
+
+	private final Worker[] workers;
+
+	private final Queue<Mailbox> mailboxes = new ConcurrentLinkedQueue<Mailbox>();
+
+	private final Queue<Worker> idleWorkers = new ConcurrentLinkedQueue<Worker>();
+
+	private final AtomicInteger nextWorker = new AtomicInteger();
+
+	private volatile int throughput = 16;
+
+	private volatile boolean running = true;
+
+
+	/**
+	 * Create a new AffinityDispatcher with a worker per available processor.
+	 */
+	public AffinityDispatcher() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Create a new AffinityDispatcher.
+	 * 
+	 * @param workerCount number of worker threads
+	 */
+	public AffinityDispatcher(int workerCount) {
+		Assert.isTrue(workerCount > 0, "Number of workers must be positive");
+		workers = new Worker[workerCount];
+		for (int i = 0; i < workerCount; i++) {
+			workers[i] = new Worker(i);
+		}
+		for (Worker worker : workers) {
+			worker.start();
+		}
+	}
+
+
+	/**
+	 * Set the maximum number of messages an actor processes before yielding
+	 * its worker to other actors. Default is 16.
+	 * 
+	 * @param throughput
+	 */
+	public void setThroughput(int throughput) {
+		Assert.isTrue(throughput > 0, "Throughput must be positive");
+		this.throughput = throughput;
+	}
+
+	/**
+	 * Create a mailbox for an actor.
+	 * 
+	 * @param name name of the actor
+	 * @return Executor executing tasks one at a time, in order, on the workers
+	 */
+	public Mailbox createMailbox(String name) {
+		Mailbox mailbox = new Mailbox(name);
+		mailboxes.add(mailbox);
+		return mailbox;
+	}
+
+	/**
+	 * Stop the worker threads.
+	 * <p/>
+	 * Messages not yet processed, and messages sent later, are discarded. Their
+	 * Futures are cancelled, so callers waiting for results are released. Waits
+	 * up to 10 seconds for each worker to finish the message it's processing.
+	 */
+	public void destroy() {
+		running = false;
+		for (Worker worker : workers) {
+			LockSupport.unpark(worker);
+		}
+		cancelPending();
+		for (Worker worker : workers) {
+			if (worker == Thread.currentThread()) {
+				continue;
+			}
+			try {
+				worker.join(JOIN_TIMEOUT_MILLIS);
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				break;
+			}
+			if (worker.isAlive()) {
+				logger().warn("{} didn't stop within {} ms.", worker.getName(), JOIN_TIMEOUT_MILLIS);
+			}
+		}
+		// Messages sent by the workers while finishing
+		cancelPending();
+	}
+
+	/**
+	 * Wait for a Future, processing the callee's mailbox meanwhile if called from a worker.
+	 * <p/>
+	 * Used by actors calling a blocking method on another actor. The callee's
+	 * mailbox is normally scheduled first on the caller's own worker, so just
+	 * blocking the worker would delay the callee until another worker steals it,
+	 * or deadlock with a single worker. Other mailboxes aren't processed, as
+	 * they might call back into the waiting actor.
+	 *
+	 * @param future
+	 * @param callee the callee's executor
+	 */
+	static void awaitOnWorker(Future<?> future, Executor callee) {
+		Thread thread = Thread.currentThread();
+		if (thread instanceof Worker && callee instanceof Mailbox) {
+			Mailbox mailbox = (Mailbox) callee;
+			Worker worker = (Worker) thread;
+			if (mailbox.dispatcher() == worker.dispatcher()) {
+				worker.helpUntilDone(future, mailbox);
+			}
+		}
+	}
+
+
+	private void cancelPending() {
+		int discarded = 0;
+		for (Mailbox mailbox : mailboxes) {
+			discarded += mailbox.cancelPending();
+		}
+		if (discarded > 0) {
+			logger().warn("Discarded {} messages without a Future.", discarded);
+		}
+	}
+
+
+	/**
+	 * Schedule a mailbox with pending messages on a worker.
+	 * 
+	 * @param mailbox
+	 * @param yielded true if the mailbox was rescheduled after yielding its worker
+	 */
+	private void schedule(Mailbox mailbox, boolean yielded) {
+		Worker current = currentWorker();
+		Worker target;
+		if (current != null) {
+			target = current;
+			if (yielded) {
+				current.deque.offerLast(mailbox);
+			}
+			else {
+				current.deque.offerFirst(mailbox);
+			}
+		}
+		else {
+			target = mailbox.lastWorker;
+			if (target == null) {
+				target = workers[(nextWorker.getAndIncrement() & Integer.MAX_VALUE) % workers.length];
+			}
+			target.deque.offerLast(mailbox);
+			LockSupport.unpark(target);
+		}
+		if (target.deque.size() > 1 || (target != current && !target.idle)) {
+			// Target is falling behind - wake an idle worker to steal
+			Worker idle = idleWorkers.poll();
+			if (idle != null) {
+				LockSupport.unpark(idle);
+			}
+		}
+	}
+
+	private Worker currentWorker() {
+		Thread thread = Thread.currentThread();
+		if (thread instanceof Worker && ((Worker) thread).dispatcher() == this) {
+			return (Worker) thread;
+		}
+		return null;
+	}
+
+
+	/**
+	 * An actor's mailbox.
+	 */
+	public final class Mailbox implements Executor {
+
+		private final String name;
+		private final Queue<Runnable> queue = new ConcurrentLinkedQueue<Runnable>();
+		private final AtomicInteger size = new AtomicInteger();
+		private final AtomicBoolean scheduled = new AtomicBoolean(false);
+		private volatile Worker lastWorker;
+
+		private Mailbox(String name) {
+			this.name = name;
+		}
+
+		public void execute(Runnable task) {
+			queue.add(task);
+			size.incrementAndGet();
+			if (!running) {
+				cancelPending();
+			}
+			else if (scheduled.compareAndSet(false, true)) {
+				schedule(this, false);
+			}
+		}
+
+		AffinityDispatcher dispatcher() {
+			return AffinityDispatcher.this;
+		}
+
+		/**
+		 * @return number of messages waiting in the mailbox
+		 */
+		public int size() {
+			return size.get();
+		}
+
+		private void run(Worker worker) {
+			lastWorker = worker;
+			int limit = throughput;
+			for (int i = 0; i < limit && running; i++) {
+				Runnable task = queue.poll();
+				if (task == null) {
+					break;
+				}
+				size.decrementAndGet();
+				try {
+					task.run();
+				}
+				catch (Throwable ex) {
+					logger().error("Actor " + name + " failed processing message.", ex);
+				}
+			}
+			scheduled.set(false);
+			if (!queue.isEmpty() && scheduled.compareAndSet(false, true)) {
+				schedule(this, true);
+			}
+		}
+
+		/**
+		 * Discard the waiting messages, cancelling their Futures.
+		 * 
+		 * @return number of messages discarded without a Future to cancel
+		 */
+		private int cancelPending() {
+			int discarded = 0;
+			Runnable task;
+			while ((task = queue.poll()) != null) {
+				size.decrementAndGet();
+				if (task instanceof Future) {
+					((Future<?>) task).cancel(false);
+				}
+				else if (task instanceof ChunkedInvocation) {
+					((ChunkedInvocation) task).cancel();
+				}
+				else {
+					discarded++;
+				}
+			}
+			return discarded;
+		}
+
+		@Override
+		public String toString() {
+			return "Mailbox[" + name + "]";
+		}
+
+	}
+
+
+	private class Worker extends Thread {
+
+		final LinkedBlockingDeque<Mailbox> deque = new LinkedBlockingDeque<Mailbox>();
+		volatile boolean idle = false;
+		private volatile long busySince;
+		private boolean sawWork;
+		private final int index;
+
+		Worker(int index) {
+			super("AffinityDispatcher-worker-" + index);
+			this.index = index;
+			setDaemon(true);
+		}
+
+		AffinityDispatcher dispatcher() {
+			return AffinityDispatcher.this;
+		}
+
+		@Override
+		public void run() {
+			while (running) {
+				Mailbox mailbox = nextMailbox();
+				if (mailbox == null) {
+					idle = true;
+					idleWorkers.add(this);
+					// Check again, in case work was scheduled before this worker was registered as idle
+					mailbox = nextMailbox();
+					if (mailbox == null) {
+						// Check back soon if another worker had work not yet stealable
+						LockSupport.parkNanos(this, sawWork ? STEAL_THRESHOLD_NANOS : IDLE_PARK_NANOS);
+					}
+					idleWorkers.remove(this);
+					idle = false;
+				}
+				if (mailbox != null) {
+					busySince = System.nanoTime();
+					mailbox.run(this);
+				}
+			}
+		}
+
+		/**
+		 * Process the callee's mailbox whenever it's waiting on a worker, until
+		 * the Future is done, or the dispatcher stops.
+		 */
+		void helpUntilDone(Future<?> future, Mailbox callee) {
+			if (future instanceof ActorFuture) {
+				final Thread waiter = this;
+				((ActorFuture<?>) future).addCallback(new FutureCallback<Object>() {
+					public void onSuccess(Object result) {
+						LockSupport.unpark(waiter);
+					}
+					public void onFailure(Throwable cause) {
+						LockSupport.unpark(waiter);
+					}
+				});
+			}
+			while (running && !future.isDone()) {
+				if (claim(callee)) {
+					busySince = System.nanoTime();
+					callee.run(this);
+				}
+				else {
+					// Running on another worker, or the Future is done
+					LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+				}
+			}
+		}
+
+		/**
+		 * Take a mailbox waiting on this or another worker.
+		 *
+		 * @return true if the mailbox was taken, and may be run by this worker
+		 */
+		private boolean claim(Mailbox mailbox) {
+			if (deque.remove(mailbox)) {
+				return true;
+			}
+			for (Worker worker : workers) {
+				if (worker != this && worker.deque.remove(mailbox)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private Mailbox nextMailbox() {
+			Mailbox mailbox = deque.pollFirst();
+			if (mailbox != null) {
+				return mailbox;
+			}
+			sawWork = false;
+			for (int i = 1; i < workers.length; i++) {
+				Worker victim = workers[(index + i) % workers.length];
+				int waiting = victim.deque.size();
+				if (waiting == 0) {
+					continue;
+				}
+				if (waiting > 1 || (!victim.idle && System.nanoTime() - victim.busySince > STEAL_THRESHOLD_NANOS)) {
+					mailbox = victim.deque.pollLast();
+					if (mailbox != null) {
+						return mailbox;
+					}
+				}
+				else {
+					sawWork = true;
+				}
+			}
+			return null;
+		}
+
+	}
+
+}
@@ -0,0 +1,65 @@
+/**
+ * Copyright (C) 2026, the clanie-aspects contributors
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package dk.clanie.actor;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+
+/**
+ * Marks an actor method whose collection argument is processed in chunks.
+ * <p/>
+ * The parameter declared as <code>List</code>, <code>Collection</code> or
+ * <code>Iterable</code> - or, if there are more, the one selected by
+ * {@link #parameter()} - is split into chunks of at most {@link #size()}
+ * elements, and the method is invoked once for each chunk, as a separate
+ * message to the actor. The next chunk is only submitted when the previous one
+ * has been processed, so other messages to the actor are processed between the
+ * chunks, bounding how long a single large argument can monopolize the actor.
+ * <p/>
+ * The method must return <code>void</code> or <code>Future</code>, as a single
+ * result can't represent all chunks - so it can't return a Publisher either.
+ * Methods not meeting the requirements are rejected when the actor is
+ * created by {@link ActorAnnotationBeanPostProcessor}. The Future returned from the actor
+ * completes, with the result of the last chunk, when all chunks have been
+ * processed - or with the exception of the first failing chunk, in which case
+ * the remaining chunks are skipped.<br/>
+ * The annotation may be placed on the interface method or on the implementation.
+ * 
+ * @see ActorExecutionInterceptor
+ */
+@Target({ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Chunked {
+
+	/**
+	 * Maximum number of elements per chunk.
+	 */
+	int size();
+
+	/**
+	 * Index of the parameter to split. Required if more than one parameter is
+	 * declared as <code>List</code>, <code>Collection</code> or <code>Iterable</code>.
+	 */
+	int parameter() default -1;
+
+}
@@ -0,0 +1,148 @@
+/**
+ * Copyright (C) 2026, the clanie-aspects contributors
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package dk.clanie.actor;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+
+import org.springframework.aop.ProxyMethodInvocation;
+
+/**
+ * Invocation of a {@link Chunked} actor method, processed one chunk at a time.
+ * <p/>
+ * Runs as a message to the actor once for each chunk, submitting itself again
+ * after each chunk until all chunks are processed.
+ * 
+ * @see Chunked
+ */
+class ChunkedInvocation implements Runnable {
+
+	private final ProxyMethodInvocation invocation;
+	private final int argumentIndex;
+	private final int chunkSize;
+	private final Executor executor;
+
+	private final Object argument;
+	private Iterator<?> iterator;
+	private int offset = 0;
+	private boolean first = true;
+	private Object lastResult;
+
+	private final ActorFutureTask<Object> result = new ActorFutureTask<Object>();
+
+
+	/**
+	 * @param invocation the invocation to split
+	 * @param argumentIndex index of the argument to split
+	 * @param chunkSize maximum number of elements per chunk
+	 * @param executor the actor's executor
+	 */
+	ChunkedInvocation(ProxyMethodInvocation invocation, int argumentIndex, int chunkSize, Executor executor) {
+		this.invocation = invocation;
+		this.argumentIndex = argumentIndex;
+		this.chunkSize = chunkSize;
+		this.executor = executor;
+		this.argument = invocation.getArguments()[argumentIndex];
+	}
+
+
+	/**
+	 * Submit the first chunk.
+	 * 
+	 * @return Future completing when all chunks are processed
+	 */
+	ActorFuture<Object> start() {
+		executor.execute(this);
+		return result;
+	}
+
+	/**
+	 * Cancel the remaining chunks.
+	 */
+	void cancel() {
+		result.cancel(false);
+	}
+
+	public void run() {
+		if (result.isDone()) {
+			// Cancelled
+			return;
+		}
+		try {
+			Object[] arguments = invocation.getArguments().clone();
+			arguments[argumentIndex] = nextChunk();
+			Object value = invocation.invocableClone(arguments).proceed();
+			if (value instanceof Future) {
+				value = ((Future<?>) value).get();
+			}
+			lastResult = value;
+		}
+		catch (Throwable ex) {
+			result.fail(ex);
+			return;
+		}
+		if (hasMoreChunks()) {
+			executor.execute(this);
+		}
+		else {
+			result.complete(lastResult);
+		}
+	}
+
+	private Object nextChunk() {
+		boolean firstChunk = first;
+		first = false;
+		if (argument instanceof List) {
+			List<?> list = (List<?>) argument;
+			if (firstChunk && list.size() <= chunkSize) {
+				offset = list.size();
+				return list;
+			}
+			int end = Math.min(offset + chunkSize, list.size());
+			List<?> chunk = list.subList(offset, end);
+			offset = end;
+			return chunk;
+		}
+		if (argument instanceof Iterable) {
+			if (iterator == null) {
+				iterator = ((Iterable<?>) argument).iterator();
+			}
+			List<Object> chunk = new ArrayList<Object>(chunkSize);
+			while (chunk.size() < chunkSize && iterator.hasNext()) {
+				chunk.add(iterator.next());
+			}
+			return chunk;
+		}
+		// null
+		return argument;
+	}
+
+	private boolean hasMoreChunks() {
+		if (argument instanceof List) {
+			return offset < ((List<?>) argument).size();
+		}
+		if (argument instanceof Iterable) {
+			return iterator.hasNext();
+		}
+		return false;
+	}
+
+}
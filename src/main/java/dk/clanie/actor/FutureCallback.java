@@ -0,0 +1,42 @@
+/**
+ * Copyright (C) 2026, the clanie-aspects contributors
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package dk.clanie.actor;
+
+/**
+ * Callback notified when an {@link ActorFuture} completes.
+ * 
+ * @param <V> the result type
+ */
+public interface FutureCallback<V> {
+
+	/**
+	 * Invoked when the Future completes successfully.
+	 * 
+	 * @param result the result
+	 */
+	void onSuccess(V result);
+
+	/**
+	 * Invoked when the Future fails or is cancelled.
+	 * 
+	 * @param cause the exception thrown by the computation, or a
+	 * <code>CancellationException</code> if the Future was cancelled
+	 */
+	void onFailure(Throwable cause);
+
+}
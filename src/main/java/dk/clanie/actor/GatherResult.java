@@ -0,0 +1,102 @@
+/**
+ * Copyright (C) 2026, the clanie-aspects contributors
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package dk.clanie.actor;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The outcome of a {@link ScatterGather} operation.
+ * <p/>
+ * Contains the results received before the operation completed, which may be
+ * fewer than required if the deadline expired or too many calls failed.
+ * 
+ * @param <T> the result type
+ */
+public final class GatherResult<T> {
+
+	private final List<T> results;
+	private final List<Throwable> failures;
+	private final int required;
+	private final int pending;
+	private final boolean timedOut;
+
+
+	GatherResult(List<T> results, List<Throwable> failures, int required, int pending, boolean timedOut) {
+		this.results = Collections.unmodifiableList(results);
+		this.failures = Collections.unmodifiableList(failures);
+		this.required = required;
+		this.pending = pending;
+		this.timedOut = timedOut;
+	}
+
+
+	/**
+	 * Get the successful results, in the order they were received.
+	 * 
+	 * @return the results
+	 */
+	public List<T> getResults() {
+		return results;
+	}
+
+	/**
+	 * Get the exceptions from failed calls, in the order they were received.
+	 * 
+	 * @return the failures
+	 */
+	public List<Throwable> getFailures() {
+		return failures;
+	}
+
+	/**
+	 * Get the number of calls which hadn't completed when the operation completed.
+	 * <p/>
+	 * Results from these calls are ignored.
+	 * 
+	 * @return number of calls still pending
+	 */
+	public int getPending() {
+		return pending;
+	}
+
+	/**
+	 * Check if the required number of successful results were received.
+	 * 
+	 * @return true if at least the required number of results were received
+	 */
+	public boolean isSatisfied() {
+		return results.size() >= required;
+	}
+
+	/**
+	 * Check if the operation was completed by its deadline.
+	 * 
+	 * @return true if the deadline expired before the operation was otherwise completed
+	 */
+	public boolean isTimedOut() {
+		return timedOut;
+	}
+
+	@Override
+	public String toString() {
+		return "GatherResult[results=" + results.size() + ", failures=" + failures.size()
+				+ ", pending=" + pending + ", required=" + required + ", timedOut=" + timedOut + "]";
+	}
+
+}
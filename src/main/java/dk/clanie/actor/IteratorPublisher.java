@@ -0,0 +1,145 @@
+/**
+ * Copyright (C) 2026, the clanie-aspects contributors
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package dk.clanie.actor;
+
+import java.util.Iterator;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+/**
+ * Publisher that publishes the elements of an Iterator.
+ * <p/>
+ * Meant to be returned from actor methods declaring {@link Publisher} as return
+ * type, much like Spring's {@link org.springframework.scheduling.annotation.AsyncResult}
+ * is returned from methods returning a <code>Future</code>. If the Iterator
+ * computes its elements lazily (from a database cursor, a file or similar) the
+ * elements are never materialized all at once.
+ * <p/>
+ * Elements are only pulled from the Iterator when requested by the subscriber,
+ * and on the thread calling {@link Subscription#request(long)} - which is the
+ * actor's thread when the Publisher is returned from an actor.<br/>
+ * An IteratorPublisher can only be subscribed to once, and it is not thread safe.
+ * 
+ * @param <T> the type of the published elements
+ */
+public class IteratorPublisher<T> implements Publisher<T> {
+
+	private final Iterator<? extends T> iterator;
+
+	private boolean subscribed = false;
+
+
+	/**
+	 * Create a new IteratorPublisher.
+	 * 
+	 * @param iterator the Iterator providing the elements to publish
+	 */
+	public IteratorPublisher(Iterator<? extends T> iterator) {
+		this.iterator = iterator;
+	}
+
+	/**
+	 * Create a new IteratorPublisher.
+	 * 
+	 * @param iterable the Iterable providing the elements to publish
+	 */
+	public IteratorPublisher(Iterable<? extends T> iterable) {
+		this(iterable.iterator());
+	}
+
+
+	public void subscribe(Subscriber<? super T> subscriber) {
+		if (subscriber == null) {
+			throw new NullPointerException("Subscriber must not be null.");
+		}
+		IteratorSubscription subscription = new IteratorSubscription(subscriber);
+		if (subscribed) {
+			subscription.done = true;
+			subscriber.onSubscribe(subscription);
+			subscriber.onError(new IllegalStateException("IteratorPublisher only supports a single subscriber."));
+			return;
+		}
+		subscribed = true;
+		subscriber.onSubscribe(subscription);
+	}
+
+
+	private class IteratorSubscription implements Subscription {
+
+		private final Subscriber<? super T> subscriber;
+
+		private long demand = 0L;
+		private boolean emitting = false;
+		private boolean done = false;
+
+		IteratorSubscription(Subscriber<? super T> subscriber) {
+			this.subscriber = subscriber;
+		}
+
+		public void request(long n) {
+			if (done) {
+				return;
+			}
+			if (n <= 0L) {
+				fail(new IllegalArgumentException("Requested number of elements must be positive, was " + n + "."));
+				return;
+			}
+			demand += n;
+			if (demand < 0L) {
+				demand = Long.MAX_VALUE;
+			}
+			// Requests made from within onNext are served by the loop already running.
+			if (emitting) {
+				return;
+			}
+			emitting = true;
+			try {
+				while (demand > 0L && !done) {
+					if (!iterator.hasNext()) {
+						done = true;
+						subscriber.onComplete();
+						return;
+					}
+					demand--;
+					subscriber.onNext(iterator.next());
+				}
+			}
+			catch (Throwable ex) {
+				fail(ex);
+			}
+			finally {
+				emitting = false;
+			}
+		}
+
+		public void cancel() {
+			done = true;
+		}
+
+		void fail(Throwable cause) {
+			if (!done) {
+				done = true;
+				subscriber.onError(cause);
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,331 @@
+/**
+ * Copyright (C) 2026, the clanie-aspects contributors
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package dk.clanie.actor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+
+/**
+ * Broadcasts a method call to a collection of actors and gathers the results
+ * in a single {@link ActorFuture}.
+ * <p/>
+ * The call is made on each actor from the calling thread, which is expected to
+ * return quickly because the actors execute the methods asynchronously. Results
+ * are then gathered through completion callbacks on the {@link ActorFuture}s
+ * returned from the actors, so no thread is blocked waiting for them.
+ * <p/>
+ * The operation completes when the required number of successful results has
+ * been received, when so many calls have failed that this is no longer possible,
+ * or when the deadline expires - whichever happens first. In all cases the
+ * returned Future completes normally with a {@link GatherResult} containing the
+ * results received so far; results received after completion are ignored.<br/>
+ * Cancelling the returned Future cancels the calls not yet completed.
+ * <p/>
+ * Example:
+ * <pre>
+ * ActorFuture&lt;GatherResult&lt;Price&gt;&gt; prices = ScatterGather.quorum(suppliers,
+ *     new ScatterGather.Call&lt;Supplier, Price&gt;() {
+ *         public Future&lt;Price&gt; call(Supplier supplier) {
+ *             return supplier.quote(item);
+ *         }
+ *     }, 500, TimeUnit.MILLISECONDS);
+ * </pre>
+ * 
+ * @see GatherResult
+ */
+public final class ScatterGather {
+
+	/**
+	 * The call to make on each actor.
+	 * 
+	 * @param <A> the actor type
+	 * @param <T> the result type
+	 */
+	public interface Call<A, T> {
+
+		/**
+		 * Call a method returning a Future on the given actor.
+		 * 
+		 * @param actor the actor
+		 * @return the Future returned from the actor; should be an {@link ActorFuture}
+		 */
+		Future<? extends T> call(A actor);
+
+	}
+
+
+	private static final ScheduledThreadPoolExecutor deadlines;
+	static {
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("ScatterGather-deadline-");
+		threadFactory.setDaemon(true);
+		deadlines = new ScheduledThreadPoolExecutor(1, threadFactory);
+		deadlines.setRemoveOnCancelPolicy(true);
+	}
+
+
+	private ScatterGather() {
+	}
+
+
+	/**
+	 * Call all actors and wait for all of them to succeed.
+	 * <p/>
+	 * Completes early if any of the calls fails.
+	 * 
+	 * @see #scatter(Collection, Call, int, long, TimeUnit)
+	 */
+	public static <A, T> ActorFuture<GatherResult<T>> all(Collection<? extends A> actors,
+			Call<? super A, ? extends T> call, long timeout, TimeUnit unit) {
+		return scatter(actors, call, actors.size(), timeout, unit);
+	}
+
+	/**
+	 * Call all actors and wait for the first <code>n</code> successful results.
+	 * 
+	 * @see #scatter(Collection, Call, int, long, TimeUnit)
+	 */
+	public static <A, T> ActorFuture<GatherResult<T>> firstN(Collection<? extends A> actors,
+			Call<? super A, ? extends T> call, int n, long timeout, TimeUnit unit) {
+		return scatter(actors, call, n, timeout, unit);
+	}
+
+	/**
+	 * Call all actors and wait for successful results from a majority of them.
+	 * 
+	 * @see #scatter(Collection, Call, int, long, TimeUnit)
+	 */
+	public static <A, T> ActorFuture<GatherResult<T>> quorum(Collection<? extends A> actors,
+			Call<? super A, ? extends T> call, long timeout, TimeUnit unit) {
+		return scatter(actors, call, actors.size() / 2 + 1, timeout, unit);
+	}
+
+	/**
+	 * Call all actors and wait for the first successful result.
+	 * 
+	 * @see #scatter(Collection, Call, int, long, TimeUnit)
+	 */
+	public static <A, T> ActorFuture<GatherResult<T>> firstSuccess(Collection<? extends A> actors,
+			Call<? super A, ? extends T> call, long timeout, TimeUnit unit) {
+		return scatter(actors, call, 1, timeout, unit);
+	}
+
+	/**
+	 * Call all actors and wait for the required number of successful results.
+	 * <p/>
+	 * A call throwing an exception, or returning a Future that completes with an
+	 * exception, counts as failed. So does a call returning a Future which is
+	 * neither an {@link ActorFuture} nor already done, because it can't be
+	 * tracked without blocking a thread.
+	 * 
+	 * @param actors the actors to call
+	 * @param call the call to make on each actor
+	 * @param required number of successful results to wait for
+	 * @param timeout maximum time to wait
+	 * @param unit the time unit of the timeout argument
+	 * @return ActorFuture completing with the gathered results
+	 */
+	public static <A, T> ActorFuture<GatherResult<T>> scatter(Collection<? extends A> actors,
+			Call<? super A, ? extends T> call, int required, long timeout, TimeUnit unit) {
+		Assert.notNull(actors, "Actors must not be null");
+		Assert.notNull(call, "Call must not be null");
+		Assert.notNull(unit, "TimeUnit must not be null");
+		Assert.isTrue(required >= 0 && required <= actors.size(),
+				"Required number of results must be between 0 and the number of actors");
+		Assert.isTrue(timeout > 0L, "Timeout must be positive");
+		Gather<T> gather = new Gather<T>(actors.size(), required);
+		gather.start(timeout, unit);
+		for (A actor : actors) {
+			Future<? extends T> future;
+			try {
+				future = call.call(actor);
+			}
+			catch (RuntimeException ex) {
+				gather.failure(ex);
+				continue;
+			}
+			gather.track(future);
+		}
+		return gather.result;
+	}
+
+
+	/**
+	 * State of one scatter-gather operation.
+	 */
+	private static class Gather<T> implements FutureCallback<T>, Runnable {
+
+		private final int total;
+		private final int required;
+		private final List<T> results = new ArrayList<T>();
+		private final List<Throwable> failures = new ArrayList<Throwable>();
+		private final List<Future<?>> futures;
+		private ScheduledFuture<?> deadline;
+		private boolean done = false;
+
+		final ActorFutureTask<GatherResult<T>> result = new ActorFutureTask<GatherResult<T>>() {
+			@Override
+			public boolean cancel(boolean mayInterruptIfRunning) {
+				boolean cancelled = super.cancel(mayInterruptIfRunning);
+				if (cancelled) {
+					cancelCalls(mayInterruptIfRunning);
+				}
+				return cancelled;
+			}
+		};
+
+		Gather(int total, int required) {
+			this.total = total;
+			this.required = required;
+			this.futures = new ArrayList<Future<?>>(total);
+		}
+
+		void start(long timeout, TimeUnit unit) {
+			GatherResult<T> completed = null;
+			synchronized (this) {
+				if (required == 0) {
+					completed = finish(false);
+				}
+				else {
+					deadline = deadlines.schedule(this, timeout, unit);
+				}
+			}
+			complete(completed);
+		}
+
+		void track(Future<? extends T> future) {
+			if (future == null) {
+				failure(new NullPointerException("Call returned null."));
+			}
+			else if (future instanceof ActorFuture) {
+				synchronized (this) {
+					futures.add(future);
+				}
+				((ActorFuture<? extends T>) future).addCallback(this);
+			}
+			else if (future.isDone()) {
+				try {
+					onSuccess(future.get());
+				}
+				catch (ExecutionException ex) {
+					failure(ex.getCause());
+				}
+				catch (Exception ex) {
+					failure(ex);
+				}
+			}
+			else {
+				failure(new IllegalArgumentException("Call returned a Future which is not an ActorFuture: " + future));
+			}
+		}
+
+		public void onSuccess(T value) {
+			GatherResult<T> completed;
+			synchronized (this) {
+				if (done) {
+					return;
+				}
+				results.add(value);
+				completed = evaluate();
+			}
+			complete(completed);
+		}
+
+		public void onFailure(Throwable cause) {
+			failure(cause);
+		}
+
+		void failure(Throwable cause) {
+			GatherResult<T> completed;
+			synchronized (this) {
+				if (done) {
+					return;
+				}
+				failures.add(cause);
+				completed = evaluate();
+			}
+			complete(completed);
+		}
+
+		/**
+		 * Deadline expired.
+		 */
+		public void run() {
+			GatherResult<T> completed;
+			synchronized (this) {
+				if (done) {
+					return;
+				}
+				completed = finish(true);
+			}
+			complete(completed);
+		}
+
+		/**
+		 * Finish if enough results are received, or if it's no longer possible.
+		 * 
+		 * @return the GatherResult if finished, otherwise null
+		 */
+		private GatherResult<T> evaluate() {
+			if (results.size() >= required || failures.size() > total - required) {
+				return finish(false);
+			}
+			return null;
+		}
+
+		private GatherResult<T> finish(boolean timedOut) {
+			done = true;
+			if (deadline != null) {
+				deadline.cancel(false);
+			}
+			int pending = total - results.size() - failures.size();
+			return new GatherResult<T>(new ArrayList<T>(results), new ArrayList<Throwable>(failures),
+					required, pending, timedOut);
+		}
+
+		private void complete(GatherResult<T> completed) {
+			if (completed != null) {
+				result.complete(completed);
+			}
+		}
+
+		private void cancelCalls(boolean mayInterruptIfRunning) {
+			List<Future<?>> toCancel;
+			synchronized (this) {
+				done = true;
+				if (deadline != null) {
+					deadline.cancel(false);
+				}
+				toCancel = new ArrayList<Future<?>>(futures);
+			}
+			for (Future<?> future : toCancel) {
+				future.cancel(mayInterruptIfRunning);
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,116 @@
+/**
+ * Copyright (C) 2026, the clanie-aspects contributors
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package dk.clanie.actor.remote;
+
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The classes which may be deserialized from values received from a peer.
+ * <p/>
+ * Java serialization instantiates whatever Serializable classes the stream
+ * names, so without a filter any peer able to connect could make the receiver
+ * construct objects of arbitrary classes on its classpath. Allowed are:
+ * <ul>
+ * <li>primitives, and arrays of allowed classes,</li>
+ * <li>classes in the packages <code>java.lang</code>, <code>java.math</code>,
+ * <code>java.util</code> and <code>java.util.concurrent</code>,</li>
+ * <li>classes explicitly allowed, for example from the parameter types of a
+ * service interface,</li>
+ * <li>subclasses of allowed supertypes.</li>
+ * </ul>
+ * Proxy classes are never allowed.
+ */
+class ClassFilter {
+
+	private static final Set<String> VALUE_PACKAGES = new HashSet<String>(Arrays.asList(
+			"java.lang", "java.math", "java.util", "java.util.concurrent"));
+
+	private final Set<Class<?>> classes = Collections.newSetFromMap(new ConcurrentHashMap<Class<?>, Boolean>());
+	private final Set<Class<?>> supertypes = Collections.newSetFromMap(new ConcurrentHashMap<Class<?>, Boolean>());
+
+
+	/**
+	 * Allow the classes making up the given type, including type arguments and
+	 * array components. Subclasses are not allowed.
+	 * 
+	 * @param type
+	 */
+	void allow(Type type) {
+		if (type instanceof Class) {
+			Class<?> clazz = (Class<?>) type;
+			if (clazz.isArray()) {
+				allow(clazz.getComponentType());
+			}
+			else {
+				classes.add(clazz);
+			}
+		}
+		else if (type instanceof ParameterizedType) {
+			allow(((ParameterizedType) type).getRawType());
+			for (Type argument : ((ParameterizedType) type).getActualTypeArguments()) {
+				allow(argument);
+			}
+		}
+		else if (type instanceof GenericArrayType) {
+			allow(((GenericArrayType) type).getGenericComponentType());
+		}
+		else if (type instanceof WildcardType) {
+			for (Type bound : ((WildcardType) type).getUpperBounds()) {
+				allow(bound);
+			}
+		}
+	}
+
+	/**
+	 * Allow the given class and all its subclasses.
+	 * 
+	 * @param supertype
+	 */
+	void allowSubclassesOf(Class<?> supertype) {
+		supertypes.add(supertype);
+	}
+
+	boolean isAllowed(Class<?> clazz) {
+		while (clazz.isArray()) {
+			clazz = clazz.getComponentType();
+		}
+		if (clazz.isPrimitive() || classes.contains(clazz)) {
+			return true;
+		}
+		String name = clazz.getName();
+		int lastDot = name.lastIndexOf('.');
+		if (lastDot > 0 && VALUE_PACKAGES.contains(name.substring(0, lastDot))) {
+			return true;
+		}
+		for (Class<?> supertype : supertypes) {
+			if (supertype.isAssignableFrom(clazz)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
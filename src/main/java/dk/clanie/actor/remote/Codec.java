@@ -0,0 +1,432 @@
+/**
+ * Copyright (C) 2026, the clanie-aspects contributors
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package dk.clanie.actor.remote;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.Serializable;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+import org.springframework.core.ConfigurableObjectInputStream;
+
+/**
+ * Encoding and decoding of frames in the remote actor protocol.
+ * <p/>
+ * A frame is a 4 byte length followed by that many bytes of payload. The payload
+ * starts with a frame type and a request ID:
+ * <pre>
+ * REQUEST  requestId methodId argumentCount argument*
+ * ONE_WAY  requestId methodId argumentCount argument*
+ * RESULT   requestId value
+ * FAILURE  requestId value (the Throwable)
+ * </pre>
+ * Numbers are written as variable length integers, and values are tagged with
+ * their type. <code>null</code>, primitive wrappers, Strings and byte arrays
+ * have compact encodings; other values are written with Java serialization,
+ * and only deserialized if their classes are allowed by a {@link ClassFilter}.
+ * <p/>
+ * Where the JVM supports serialization filters (Java 8u121 and later), the
+ * depth of deserialized object graphs is limited to {@link #MAX_DEPTH}, and
+ * array lengths to the length of the serialized value. On older JVMs too deep
+ * graphs fail with a <code>StackOverflowError</code>, so values from untrusted
+ * peers must not be decoded on a thread where that would do harm.
+ */
+class Codec {
+
+	static final byte REQUEST = 1;
+	static final byte ONE_WAY = 2;
+	static final byte RESULT = 3;
+	static final byte FAILURE = 4;
+
+	private static final byte NULL = 0;
+	private static final byte TRUE = 1;
+	private static final byte FALSE = 2;
+	private static final byte BYTE = 3;
+	private static final byte SHORT = 4;
+	private static final byte INT = 5;
+	private static final byte LONG = 6;
+	private static final byte FLOAT = 7;
+	private static final byte DOUBLE = 8;
+	private static final byte CHAR = 9;
+	private static final byte STRING = 10;
+	private static final byte BYTE_ARRAY = 11;
+	private static final byte SERIALIZED = 12;
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	/**
+	 * Default largest accepted frame payload.
+	 */
+	static final int DEFAULT_MAX_FRAME_LENGTH = 1024 * 1024;
+
+	/**
+	 * Deepest object graph accepted when deserializing values.
+	 */
+	static final int MAX_DEPTH = 200;
+
+
+	private Codec() {
+	}
+
+
+	/**
+	 * Builder for a single frame.
+	 */
+	static class FrameBuilder {
+
+		private byte[] buf = new byte[64];
+		private int pos = 4; // Room for the length
+
+		FrameBuilder(byte type, long requestId) {
+			writeByte(type);
+			writeVarLong(requestId);
+		}
+
+		FrameBuilder writeByte(int b) {
+			ensureCapacity(1);
+			buf[pos++] = (byte) b;
+			return this;
+		}
+
+		FrameBuilder writeVarLong(long value) {
+			ensureCapacity(10);
+			while ((value & ~0x7FL) != 0L) {
+				buf[pos++] = (byte) ((value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			buf[pos++] = (byte) value;
+			return this;
+		}
+
+		FrameBuilder writeSignedVarLong(long value) {
+			return writeVarLong((value << 1) ^ (value >> 63));
+		}
+
+		FrameBuilder writeBytes(byte[] bytes) {
+			writeVarLong(bytes.length);
+			ensureCapacity(bytes.length);
+			System.arraycopy(bytes, 0, buf, pos, bytes.length);
+			pos += bytes.length;
+			return this;
+		}
+
+		FrameBuilder writeFixed(long value, int bytes) {
+			ensureCapacity(bytes);
+			for (int i = bytes - 1; i >= 0; i--) {
+				buf[pos++] = (byte) (value >>> (i * 8));
+			}
+			return this;
+		}
+
+		FrameBuilder writeValue(Object value) throws IOException {
+			if (value == null) {
+				writeByte(NULL);
+			}
+			else if (value instanceof Boolean) {
+				writeByte(((Boolean) value) ? TRUE : FALSE);
+			}
+			else if (value instanceof Byte) {
+				writeByte(BYTE).writeByte((Byte) value);
+			}
+			else if (value instanceof Short) {
+				writeByte(SHORT).writeSignedVarLong((Short) value);
+			}
+			else if (value instanceof Integer) {
+				writeByte(INT).writeSignedVarLong((Integer) value);
+			}
+			else if (value instanceof Long) {
+				writeByte(LONG).writeSignedVarLong((Long) value);
+			}
+			else if (value instanceof Float) {
+				writeByte(FLOAT).writeFixed(Float.floatToIntBits((Float) value), 4);
+			}
+			else if (value instanceof Double) {
+				writeByte(DOUBLE).writeFixed(Double.doubleToLongBits((Double) value), 8);
+			}
+			else if (value instanceof Character) {
+				writeByte(CHAR).writeVarLong((Character) value);
+			}
+			else if (value instanceof String) {
+				writeByte(STRING).writeBytes(((String) value).getBytes(UTF8));
+			}
+			else if (value instanceof byte[]) {
+				writeByte(BYTE_ARRAY).writeBytes((byte[]) value);
+			}
+			else if (value instanceof Serializable) {
+				ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+				ObjectOutputStream out = new ObjectOutputStream(bytes);
+				out.writeObject(value);
+				out.close();
+				writeByte(SERIALIZED).writeBytes(bytes.toByteArray());
+			}
+			else {
+				throw new IOException("Can't encode value of type " + value.getClass().getName()
+						+ " - it must be Serializable.");
+			}
+			return this;
+		}
+
+		/**
+		 * @return the frame, ready for writing
+		 */
+		ByteBuffer toFrame() {
+			int length = pos - 4;
+			buf[0] = (byte) (length >>> 24);
+			buf[1] = (byte) (length >>> 16);
+			buf[2] = (byte) (length >>> 8);
+			buf[3] = (byte) length;
+			return ByteBuffer.wrap(buf, 0, pos);
+		}
+
+		private void ensureCapacity(int needed) {
+			if (pos + needed > buf.length) {
+				buf = Arrays.copyOf(buf, Math.max(buf.length * 2, pos + needed));
+			}
+		}
+
+	}
+
+
+	/**
+	 * Reader for the payload of a single frame.
+	 */
+	static class FrameReader {
+
+		private final ByteBuffer payload;
+		private final ClassLoader classLoader;
+		private final ClassFilter classFilter;
+
+		/**
+		 * @param payload the frame payload, without the length
+		 * @param classLoader used when deserializing values
+		 * @param classFilter the classes allowed when deserializing values
+		 */
+		FrameReader(ByteBuffer payload, ClassLoader classLoader, ClassFilter classFilter) {
+			this.payload = payload;
+			this.classLoader = classLoader;
+			this.classFilter = classFilter;
+		}
+
+		/**
+		 * Get a reader for the rest of the payload, which stays valid after
+		 * the frame has been processed.
+		 * 
+		 * @return a reader for a copy of the remaining payload
+		 */
+		FrameReader detach() {
+			ByteBuffer copy = ByteBuffer.allocate(payload.remaining());
+			copy.put(payload).flip();
+			return new FrameReader(copy, classLoader, classFilter);
+		}
+
+		byte readByte() {
+			return payload.get();
+		}
+
+		long readVarLong() throws IOException {
+			long value = 0L;
+			for (int shift = 0; shift < 64; shift += 7) {
+				byte b = payload.get();
+				value |= (long) (b & 0x7F) << shift;
+				if ((b & 0x80) == 0) {
+					return value;
+				}
+			}
+			throw new IOException("Malformed variable length integer.");
+		}
+
+		long readSignedVarLong() throws IOException {
+			long value = readVarLong();
+			return (value >>> 1) ^ -(value & 1L);
+		}
+
+		int readLength() throws IOException {
+			long length = readVarLong();
+			if (length < 0L || length > payload.remaining()) {
+				throw new IOException("Malformed length: " + length);
+			}
+			return (int) length;
+		}
+
+		byte[] readBytes() throws IOException {
+			byte[] bytes = new byte[readLength()];
+			payload.get(bytes);
+			return bytes;
+		}
+
+		Object readValue() throws IOException {
+			byte tag = payload.get();
+			switch (tag) {
+			case NULL:
+				return null;
+			case TRUE:
+				return Boolean.TRUE;
+			case FALSE:
+				return Boolean.FALSE;
+			case BYTE:
+				return payload.get();
+			case SHORT:
+				return (short) readSignedVarLong();
+			case INT:
+				return (int) readSignedVarLong();
+			case LONG:
+				return readSignedVarLong();
+			case FLOAT:
+				return payload.getFloat();
+			case DOUBLE:
+				return payload.getDouble();
+			case CHAR:
+				return (char) readVarLong();
+			case STRING:
+				return new String(readBytes(), UTF8);
+			case BYTE_ARRAY:
+				return readBytes();
+			case SERIALIZED:
+				byte[] bytes = readBytes();
+				FilteringObjectInputStream in = new FilteringObjectInputStream(
+						new ByteArrayInputStream(bytes), classLoader, classFilter);
+				SerialFilter.limit(in, bytes.length);
+				try {
+					return in.readObject();
+				}
+				catch (ClassNotFoundException ex) {
+					throw new IOException("Can't decode value: " + ex.getMessage(), ex);
+				}
+				finally {
+					in.close();
+				}
+			default:
+				throw new IOException("Unknown value tag: " + tag);
+			}
+		}
+
+	}
+
+
+	/**
+	 * ObjectInputStream rejecting classes not allowed by a {@link ClassFilter}.
+	 * <p/>
+	 * Classes are checked when their descriptors are read, before any instance
+	 * is created. Resolving loads the class without initializing it.
+	 */
+	private static class FilteringObjectInputStream extends ConfigurableObjectInputStream {
+
+		private final ClassFilter classFilter;
+
+		FilteringObjectInputStream(InputStream in, ClassLoader classLoader, ClassFilter classFilter) throws IOException {
+			super(in, classLoader);
+			this.classFilter = classFilter;
+		}
+
+		@Override
+		protected Class<?> resolveClass(ObjectStreamClass classDesc) throws IOException, ClassNotFoundException {
+			Class<?> clazz = super.resolveClass(classDesc);
+			if (!classFilter.isAllowed(clazz)) {
+				throw new InvalidClassException(clazz.getName(), "Class not allowed in remote actor invocations");
+			}
+			return clazz;
+		}
+
+		@Override
+		protected Class<?> resolveProxyClass(String[] interfaces) throws IOException {
+			throw new InvalidClassException("Proxy classes are not allowed in remote actor invocations");
+		}
+
+	}
+
+
+	/**
+	 * Limits the object graphs read by an ObjectInputStream, using the
+	 * serialization filters of the JVM, if available.
+	 * <p/>
+	 * The filter API is in <code>java.io</code> from Java 9 and in
+	 * <code>sun.misc</code> from Java 8u121, so it's accessed by reflection.
+	 */
+	private static class SerialFilter {
+
+		private static final Method CREATE_FILTER;
+		private static final Method SET_FILTER;
+		private static final boolean STATIC_SETTER;
+
+		static {
+			Method createFilter = null;
+			Method setFilter = null;
+			boolean staticSetter = false;
+			try {
+				Class<?> filterClass = Class.forName("java.io.ObjectInputFilter");
+				createFilter = Class.forName("java.io.ObjectInputFilter$Config").getMethod("createFilter", String.class);
+				setFilter = ObjectInputStream.class.getMethod("setObjectInputFilter", filterClass);
+			}
+			catch (Exception ex) {
+				try {
+					Class<?> filterClass = Class.forName("sun.misc.ObjectInputFilter");
+					Class<?> configClass = Class.forName("sun.misc.ObjectInputFilter$Config");
+					createFilter = configClass.getMethod("createFilter", String.class);
+					setFilter = configClass.getMethod("setObjectInputFilter", ObjectInputStream.class, filterClass);
+					staticSetter = true;
+				}
+				catch (Exception e) {
+					// No serialization filters in this JVM
+				}
+			}
+			CREATE_FILTER = createFilter;
+			SET_FILTER = setFilter;
+			STATIC_SETTER = staticSetter;
+		}
+
+		/**
+		 * Limit the depth of the object graph to {@link Codec#MAX_DEPTH} and the
+		 * length of arrays to the length of the serialized value, as each array
+		 * element takes at least one byte.
+		 * <p/>
+		 * Does nothing if the JVM doesn't support serialization filters, or if a
+		 * JVM wide filter has already been set.
+		 */
+		static void limit(ObjectInputStream in, int length) throws IOException {
+			if (CREATE_FILTER == null) {
+				return;
+			}
+			try {
+				Object filter = CREATE_FILTER.invoke(null, "maxdepth=" + MAX_DEPTH + ";maxarray=" + length);
+				if (STATIC_SETTER) {
+					SET_FILTER.invoke(null, in, filter);
+				}
+				else {
+					SET_FILTER.invoke(in, filter);
+				}
+			}
+			catch (Exception ex) {
+				if (!(ex.getCause() instanceof IllegalStateException)) {
+					throw new IOException("Can't set serialization filter.", ex);
+				}
+				// A JVM wide filter is already set
+			}
+		}
+
+	}
+
+}
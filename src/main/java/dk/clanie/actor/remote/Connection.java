@@ -0,0 +1,169 @@
+/**
+ * Copyright (C) 2026, the clanie-aspects contributors
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package dk.clanie.actor.remote;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A connection between remote actor endpoints.
+ * <p/>
+ * Frames may be sent from any thread; they are queued and written by the
+ * endpoint's selector thread, which writes all queued frames in a single
+ * gathering write whenever the channel is writable. All reading is done by the
+ * selector thread.<br/>
+ * The read buffer is enlarged for frames larger than its initial size, up to
+ * the endpoint's maximum frame length, and shrunk again when they have been
+ * processed.
+ */
+class Connection {
+
+	private static final int INITIAL_READ_BUFFER_SIZE = 64 * 1024;
+
+	private final SocketChannel channel;
+	private final NioEndpoint endpoint;
+	private SelectionKey key;
+
+	private ByteBuffer in = ByteBuffer.allocate(INITIAL_READ_BUFFER_SIZE);
+
+	private final Queue<ByteBuffer> out = new ConcurrentLinkedQueue<ByteBuffer>();
+	private final ArrayDeque<ByteBuffer> writing = new ArrayDeque<ByteBuffer>();
+	private final AtomicBoolean writeRequested = new AtomicBoolean(false);
+
+
+	Connection(SocketChannel channel, NioEndpoint endpoint) {
+		this.channel = channel;
+		this.endpoint = endpoint;
+	}
+
+
+	SocketChannel getChannel() {
+		return channel;
+	}
+
+	void setKey(SelectionKey key) {
+		this.key = key;
+	}
+
+	/**
+	 * Queue a frame for writing. May be called from any thread.
+	 * 
+	 * @param frame
+	 */
+	void send(ByteBuffer frame) {
+		out.add(frame);
+		if (writeRequested.compareAndSet(false, true)) {
+			endpoint.requestWrite(this);
+		}
+	}
+
+	/**
+	 * Register interest in writing. Called from the selector thread.
+	 */
+	void enableWrite() {
+		if (key.isValid()) {
+			key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+		}
+	}
+
+	/**
+	 * Read available bytes, passing complete frames to the endpoint.
+	 * Called from the selector thread.
+	 * 
+	 * @throws IOException
+	 */
+	void read() throws IOException {
+		if (channel.read(in) < 0) {
+			throw new EOFException("Connection closed by peer.");
+		}
+		in.flip();
+		while (in.remaining() >= 4) {
+			int length = in.getInt(in.position());
+			if (length < 0 || length > endpoint.getMaxFrameLength()) {
+				throw new IOException("Illegal frame length: " + length);
+			}
+			if (in.remaining() < 4 + length) {
+				if (4 + length > in.capacity()) {
+					ByteBuffer larger = ByteBuffer.allocate(4 + length);
+					larger.put(in);
+					in = larger;
+					return;
+				}
+				break;
+			}
+			ByteBuffer payload = in.slice();
+			payload.position(4);
+			payload.limit(4 + length);
+			in.position(in.position() + 4 + length);
+			endpoint.onFrame(this, payload.slice());
+		}
+		in.compact();
+		if (in.capacity() > INITIAL_READ_BUFFER_SIZE
+				&& (in.position() < 4 || 4 + in.getInt(0) <= INITIAL_READ_BUFFER_SIZE)) {
+			// No large frame pending - release the enlarged buffer
+			in.flip();
+			in = ByteBuffer.allocate(INITIAL_READ_BUFFER_SIZE).put(in);
+		}
+	}
+
+	/**
+	 * Write queued frames. Called from the selector thread.
+	 * 
+	 * @throws IOException
+	 */
+	void write() throws IOException {
+		while (true) {
+			ByteBuffer frame;
+			while ((frame = out.poll()) != null) {
+				writing.add(frame);
+			}
+			if (!writing.isEmpty()) {
+				channel.write(writing.toArray(new ByteBuffer[writing.size()]));
+				while (!writing.isEmpty() && !writing.peek().hasRemaining()) {
+					writing.poll();
+				}
+				if (!writing.isEmpty()) {
+					// Socket buffer full - continue when writable again
+					return;
+				}
+			}
+			writeRequested.set(false);
+			if (out.isEmpty() || !writeRequested.compareAndSet(false, true)) {
+				key.interestOps(SelectionKey.OP_READ);
+				return;
+			}
+		}
+	}
+
+	void close() {
+		try {
+			channel.close();
+		}
+		catch (IOException ex) {
+			// Ignore
+		}
+	}
+
+}
@@ -0,0 +1,79 @@
+/**
+ * Copyright (C) 2026, the clanie-aspects contributors
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package dk.clanie.actor.remote;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Maps the methods of a service interface to compact numeric IDs.
+ * <p/>
+ * Methods are numbered in the order of their signatures, so both ends of a
+ * connection derive the same IDs from the same version of the interface.
+ */
+class MethodTable {
+
+	private final Method[] methods;
+
+	private final Map<Method, Integer> ids;
+
+
+	MethodTable(Class<?> serviceInterface) {
+		if (!serviceInterface.isInterface()) {
+			throw new IllegalArgumentException(serviceInterface.getName() + " is not an interface.");
+		}
+		methods = serviceInterface.getMethods();
+		Arrays.sort(methods, new Comparator<Method>() {
+			public int compare(Method m1, Method m2) {
+				return m1.toString().compareTo(m2.toString());
+			}
+		});
+		ids = new HashMap<Method, Integer>(methods.length * 2);
+		for (int i = 0; i < methods.length; i++) {
+			ids.put(methods[i], i);
+		}
+	}
+
+
+	/**
+	 * @param method a method of the service interface
+	 * @return the method's ID
+	 */
+	int getId(Method method) {
+		Integer id = ids.get(method);
+		if (id == null) {
+			throw new IllegalArgumentException("Not a service interface method: " + method);
+		}
+		return id;
+	}
+
+	/**
+	 * @param id
+	 * @return the method with the given ID
+	 */
+	Method getMethod(int id) {
+		if (id < 0 || id >= methods.length) {
+			throw new IllegalArgumentException("Unknown method ID: " + id);
+		}
+		return methods[id];
+	}
+
+}
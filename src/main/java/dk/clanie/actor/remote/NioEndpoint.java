@@ -0,0 +1,223 @@
+/**
+ * Copyright (C) 2026, the clanie-aspects contributors
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package dk.clanie.actor.remote;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Base class for the NIO endpoints of remote actor connections.
+ * <p/>
+ * Runs a single selector thread doing all network I/O for the endpoint's
+ * connections. Any failure processing a connection's frames closes that
+ * connection only; the selector thread keeps serving the others.
+ */
+abstract class NioEndpoint implements Runnable {
+
+	protected final Selector selector;
+
+	private final Queue<Connection> writeRequests = new ConcurrentLinkedQueue<Connection>();
+
+	private volatile boolean running = false;
+
+	private volatile int maxFrameLength = Codec.DEFAULT_MAX_FRAME_LENGTH;
+
+	private Thread thread;
+
+
+	NioEndpoint() throws IOException {
+		selector = Selector.open();
+	}
+
+
+	int getMaxFrameLength() {
+		return maxFrameLength;
+	}
+
+	/**
+	 * Set the largest frame payload accepted from peers.
+	 * 
+	 * @param maxFrameLength
+	 */
+	void setMaxFrameLength(int maxFrameLength) {
+		if (maxFrameLength < 1) {
+			throw new IllegalArgumentException("maxFrameLength must be positive.");
+		}
+		this.maxFrameLength = maxFrameLength;
+	}
+
+	/**
+	 * Start the selector thread.
+	 * <p/>
+	 * Channels to be selected from the start must be registered before this is called.
+	 * 
+	 * @param threadName
+	 */
+	void start(String threadName) {
+		running = true;
+		thread = new Thread(this, threadName);
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Stop the selector thread and close all channels.
+	 */
+	void stop() {
+		running = false;
+		selector.wakeup();
+		if (thread != null && thread != Thread.currentThread()) {
+			try {
+				thread.join(10000L);
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	public void run() {
+		try {
+			while (running) {
+				selector.select();
+				Connection writer;
+				while ((writer = writeRequests.poll()) != null) {
+					writer.enableWrite();
+				}
+				Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+				while (keys.hasNext()) {
+					SelectionKey key = keys.next();
+					keys.remove();
+					process(key);
+				}
+			}
+		}
+		catch (Throwable ex) {
+			onFailure(ex);
+		}
+		finally {
+			for (SelectionKey key : selector.keys()) {
+				if (key.attachment() instanceof Connection) {
+					close((Connection) key.attachment(), null);
+				}
+				else {
+					try {
+						key.channel().close();
+					}
+					catch (IOException ex) {
+						// Ignore
+					}
+				}
+			}
+			try {
+				selector.close();
+			}
+			catch (IOException ex) {
+				// Ignore
+			}
+		}
+	}
+
+	private void process(SelectionKey key) {
+		Connection connection = (Connection) key.attachment();
+		try {
+			if (key.isValid() && key.isAcceptable()) {
+				accept(key);
+			}
+			if (key.isValid() && key.isReadable()) {
+				connection.read();
+			}
+			if (key.isValid() && key.isWritable()) {
+				connection.write();
+			}
+		}
+		catch (Throwable ex) {
+			// I/O failure, malformed frame or failure processing it
+			close(connection, ex);
+		}
+	}
+
+	/**
+	 * Register a new connection with the selector.
+	 * 
+	 * @param connection
+	 * @throws IOException
+	 */
+	void register(Connection connection) throws IOException {
+		connection.getChannel().configureBlocking(false);
+		connection.setKey(connection.getChannel().register(selector, SelectionKey.OP_READ, connection));
+	}
+
+	/**
+	 * Called by connections with pending output. May be called from any thread.
+	 * 
+	 * @param connection
+	 */
+	void requestWrite(Connection connection) {
+		writeRequests.add(connection);
+		selector.wakeup();
+	}
+
+	private void close(Connection connection, Throwable cause) {
+		if (connection != null) {
+			connection.close();
+			onClose(connection, cause);
+		}
+	}
+
+	/**
+	 * Accept a new connection. Only servers need to override this.
+	 * 
+	 * @param key
+	 * @throws IOException
+	 */
+	protected void accept(SelectionKey key) throws IOException {
+	}
+
+	/**
+	 * Process a frame. Called from the selector thread, so must not block; the
+	 * payload is only valid until this method returns. Any exception thrown
+	 * closes the connection.
+	 * 
+	 * @param connection the connection the frame was received on
+	 * @param payload the frame payload
+	 * @throws IOException if the frame is malformed
+	 */
+	protected abstract void onFrame(Connection connection, ByteBuffer payload) throws IOException;
+
+	/**
+	 * Called when a connection has been closed.
+	 * 
+	 * @param connection
+	 * @param cause the exception causing the connection to close, or null
+	 */
+	protected abstract void onClose(Connection connection, Throwable cause);
+
+	/**
+	 * Called if the selector fails. All connections are closed afterwards.
+	 * 
+	 * @param cause
+	 */
+	protected abstract void onFailure(Throwable cause);
+
+}
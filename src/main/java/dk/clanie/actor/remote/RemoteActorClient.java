@@ -0,0 +1,271 @@
+/**
+ * Copyright (C) 2026, the clanie-aspects contributors
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package dk.clanie.actor.remote;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.util.ClassUtils;
+
+import dk.clanie.actor.ActorFutureTask;
+
+/**
+ * Connection to a {@link RemoteActorExporter}, providing proxies implementing
+ * the exported actor's interface.
+ * <p/>
+ * All proxies from the same client share a single connection. Invocations are
+ * pipelined - sent without waiting for the results of earlier invocations - and
+ * results are correlated with invocations by request ID.
+ * <p/>
+ * The proxies behave like local actor proxies: <code>void</code> methods return
+ * immediately, methods returning <code>Future</code> return an
+ * {@link dk.clanie.actor.ActorFuture} immediately, and methods returning other
+ * types block the caller until the result is received. Methods returning a
+ * {@link Publisher} are not supported.<br/>
+ * Arguments and results must be primitives, Strings, byte arrays or Serializable.
+ * Serialized results are only accepted if their classes appear in the return
+ * types of the proxied interfaces, are basic <code>java.*</code> value and
+ * collection classes, or are allowed with {@link #allowClasses(Class...)};
+ * exceptions are always accepted.
+ * 
+ * @see RemoteActorExporter
+ */
+public class RemoteActorClient implements DisposableBean {
+
+	private final Endpoint endpoint;
+	private final Connection connection;
+	private final ClassLoader classLoader = ClassUtils.getDefaultClassLoader();
+	private final ClassFilter classFilter = new ClassFilter();
+
+	private final Map<Long, ActorFutureTask<Object>> pending = new ConcurrentHashMap<Long, ActorFutureTask<Object>>();
+	private final AtomicLong requestIds = new AtomicLong();
+	private volatile Throwable closedCause = null;
+	private volatile boolean closed = false;
+
+
+	/**
+	 * Create a new RemoteActorClient connected to the given endpoint.
+	 * 
+	 * @param host host name or address of the {@link RemoteActorExporter}
+	 * @param port port of the {@link RemoteActorExporter}
+	 * @throws IOException if the connection can't be established
+	 */
+	public RemoteActorClient(String host, int port) throws IOException {
+		classFilter.allowSubclassesOf(Throwable.class);
+		SocketChannel channel = SocketChannel.open(new InetSocketAddress(host, port));
+		channel.socket().setTcpNoDelay(true);
+		endpoint = new Endpoint();
+		connection = new Connection(channel, endpoint);
+		endpoint.register(connection);
+		endpoint.start("RemoteActorClient-" + host + ":" + port);
+	}
+
+
+	/**
+	 * Get a proxy for the remote actor.
+	 * 
+	 * @param serviceInterface the interface exported by the {@link RemoteActorExporter}
+	 * @return proxy implementing the given interface
+	 */
+	public <T> T getProxy(Class<T> serviceInterface) {
+		for (Method method : serviceInterface.getMethods()) {
+			classFilter.allow(method.getGenericReturnType());
+		}
+		return serviceInterface.cast(Proxy.newProxyInstance(serviceInterface.getClassLoader(),
+				new Class<?>[] {serviceInterface}, new RemoteInvocationHandler(new MethodTable(serviceInterface))));
+	}
+
+	/**
+	 * Allow additional classes in results, for example subclasses of return types.
+	 * Subclasses of these classes are not allowed.
+	 * 
+	 * @param classes
+	 */
+	public void allowClasses(Class<?>... classes) {
+		for (Class<?> clazz : classes) {
+			classFilter.allow(clazz);
+		}
+	}
+
+	/**
+	 * Set the largest frame accepted from the exporter, in bytes. Default is 1 MB.
+	 * 
+	 * @param maxFrameLength
+	 */
+	public void setMaxFrameLength(int maxFrameLength) {
+		endpoint.setMaxFrameLength(maxFrameLength);
+	}
+
+	/**
+	 * Close the connection.
+	 * <p/>
+	 * Invocations still waiting for results fail with a {@link RemoteActorException}.
+	 */
+	public void close() {
+		endpoint.stop();
+	}
+
+	public void destroy() {
+		close();
+	}
+
+
+	private void failPending() {
+		Iterator<ActorFutureTask<Object>> futures = pending.values().iterator();
+		while (futures.hasNext()) {
+			ActorFutureTask<Object> future = futures.next();
+			futures.remove();
+			future.fail(new RemoteActorException("Connection closed.", closedCause));
+		}
+	}
+
+
+	private class RemoteInvocationHandler implements InvocationHandler {
+
+		private final MethodTable methodTable;
+
+		RemoteInvocationHandler(MethodTable methodTable) {
+			this.methodTable = methodTable;
+		}
+
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			if (method.getDeclaringClass() == Object.class) {
+				if (method.getName().equals("equals")) {
+					return proxy == args[0];
+				}
+				if (method.getName().equals("hashCode")) {
+					return System.identityHashCode(proxy);
+				}
+				return "Remote actor proxy for " + proxy.getClass().getInterfaces()[0].getName();
+			}
+			Class<?> returnType = method.getReturnType();
+			if (Publisher.class.isAssignableFrom(returnType)) {
+				throw new UnsupportedOperationException("Remote actors don't support methods returning Publisher.");
+			}
+			boolean oneWay = Void.TYPE == returnType;
+			long requestId = requestIds.incrementAndGet();
+			Codec.FrameBuilder frame = new Codec.FrameBuilder(oneWay ? Codec.ONE_WAY : Codec.REQUEST, requestId);
+			frame.writeVarLong(methodTable.getId(method));
+			int argCount = args == null ? 0 : args.length;
+			frame.writeVarLong(argCount);
+			for (int i = 0; i < argCount; i++) {
+				try {
+					frame.writeValue(args[i]);
+				}
+				catch (IOException ex) {
+					throw new RemoteActorException("Can't encode argument " + i + " of " + method + ".", ex);
+				}
+			}
+			if (oneWay) {
+				ensureOpen();
+				connection.send(frame.toFrame());
+				return null;
+			}
+			ActorFutureTask<Object> result = new ActorFutureTask<Object>();
+			pending.put(requestId, result);
+			if (closed && pending.remove(requestId) != null) {
+				ensureOpen();
+			}
+			connection.send(frame.toFrame());
+			if (Future.class.isAssignableFrom(returnType)) {
+				return result;
+			}
+			try {
+				return result.get();
+			}
+			catch (ExecutionException ex) {
+				throw ex.getCause();
+			}
+		}
+
+		private void ensureOpen() {
+			if (closed) {
+				throw new RemoteActorException("Connection closed.", closedCause);
+			}
+		}
+
+	}
+
+
+	private class Endpoint extends NioEndpoint {
+
+		Endpoint() throws IOException {
+			super();
+		}
+
+		@Override
+		protected void onFrame(Connection connection, ByteBuffer payload) throws IOException {
+			Codec.FrameReader reader = new Codec.FrameReader(payload, classLoader, classFilter);
+			byte type = reader.readByte();
+			long requestId = reader.readVarLong();
+			if (type != Codec.RESULT && type != Codec.FAILURE) {
+				throw new IOException("Unexpected frame type: " + type);
+			}
+			ActorFutureTask<Object> result = pending.remove(requestId);
+			if (result == null) {
+				return;
+			}
+			Object value;
+			try {
+				value = reader.readValue();
+			}
+			catch (Throwable ex) {
+				result.fail(new RemoteActorException("Can't decode result.", ex));
+				return;
+			}
+			if (type == Codec.RESULT) {
+				result.complete(value);
+			}
+			else if (value instanceof Throwable) {
+				result.fail((Throwable) value);
+			}
+			else {
+				result.fail(new RemoteActorException("Invocation failed: " + value));
+			}
+		}
+
+		@Override
+		protected void onClose(Connection connection, Throwable cause) {
+			closedCause = cause;
+			closed = true;
+			failPending();
+		}
+
+		@Override
+		protected void onFailure(Throwable cause) {
+			closedCause = cause;
+			closed = true;
+			failPending();
+		}
+
+	}
+
+}
@@ -0,0 +1,38 @@
+/**
+ * Copyright (C) 2026, the clanie-aspects contributors
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package dk.clanie.actor.remote;
+
+/**
+ * Thrown when a remote actor invocation fails for other reasons than an
+ * exception thrown by the actor, for example if the connection is lost.
+ * <p/>
+ * Also substitutes exceptions thrown by remote actors which can't be serialized.
+ */
+public class RemoteActorException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public RemoteActorException(String message) {
+		super(message);
+	}
+
+	public RemoteActorException(String message, Throwable cause) {
+		super(message, cause);
+	}
+
+}
@@ -0,0 +1,357 @@
+/**
+ * Copyright (C) 2026, the clanie-aspects contributors
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package dk.clanie.actor.remote;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+
+import dk.clanie.actor.ActorFuture;
+import dk.clanie.actor.FutureCallback;
+import dk.clanie.logging.LoggingSupport;
+
+/**
+ * Exposes an actor on a non-blocking socket endpoint, for use by
+ * {@link RemoteActorClient}s in other JVMs.
+ * <p/>
+ * Invocations received are made on the given actor - normally the proxy of an
+ * {@link dk.clanie.actor.Actor} bean - in the order they are received, so the
+ * actor's mailbox semantics are the same as for local callers. Results from
+ * methods returning a <code>Future</code> are sent back when the Future
+ * completes, without blocking any thread.<br/>
+ * Like local callers of methods returning other types than <code>void</code> or
+ * <code>Future</code>, the exporter waits for the result of such methods, which
+ * delays the dispatching of later invocations.
+ * <p/>
+ * The exporter listens on the loopback address unless another host is set.
+ * Serialized argument values are only accepted if their classes appear in the
+ * parameter types of the service interface, are basic <code>java.*</code>
+ * value and collection classes, or are set as allowed classes; see
+ * {@link #setAllowedClasses(Class[])}. Arguments are decoded by the thread
+ * dispatching the invocations, not by the thread doing the network I/O, and
+ * an invocation whose arguments can't be decoded fails without affecting other
+ * invocations or connections. There is no authentication, so only expose the
+ * endpoint on networks where all peers are trusted.
+ * <p/>
+ * Example:
+ * <pre>
+ * &lt;bean class="dk.clanie.actor.remote.RemoteActorExporter"&gt;
+ *     &lt;property name="actor" ref="myActor"/&gt;
+ *     &lt;property name="serviceInterface" value="com.example.MyActor"/&gt;
+ *     &lt;property name="port" value="7700"/&gt;
+ * &lt;/bean&gt;
+ * </pre>
+ * 
+ * @see RemoteActorClient
+ */
+public class RemoteActorExporter implements InitializingBean, DisposableBean, LoggingSupport {
+
+	private Object actor;
+	private Class<?> serviceInterface;
+	private String host;
+	private int port = 0;
+	private Class<?>[] allowedClasses = new Class<?>[0];
+	private int maxFrameLength = Codec.DEFAULT_MAX_FRAME_LENGTH;
+
+	private MethodTable methodTable;
+	private final ClassFilter classFilter = new ClassFilter();
+	private ExecutorService dispatcher;
+	private Endpoint endpoint;
+	private int localPort;
+
+
+	/**
+	 * Set the actor to expose.
+	 * 
+	 * @param actor
+	 */
+	public void setActor(Object actor) {
+		this.actor = actor;
+	}
+
+	/**
+	 * Set the interface to expose. Clients must use the same interface.
+	 * 
+	 * @param serviceInterface
+	 */
+	public void setServiceInterface(Class<?> serviceInterface) {
+		this.serviceInterface = serviceInterface;
+	}
+
+	/**
+	 * Set the host name or address to bind to. Default is the loopback address;
+	 * use <code>0.0.0.0</code> to bind to all local addresses.
+	 * 
+	 * @param host
+	 */
+	public void setHost(String host) {
+		this.host = host;
+	}
+
+	/**
+	 * Set the port to listen on. Default is 0, which means any free port.
+	 * 
+	 * @param port
+	 */
+	public void setPort(int port) {
+		this.port = port;
+	}
+
+	/**
+	 * Set additional classes accepted when deserializing arguments, for example
+	 * subclasses of parameter types. Subclasses of these classes are not accepted.
+	 * 
+	 * @param allowedClasses
+	 */
+	public void setAllowedClasses(Class<?>[] allowedClasses) {
+		this.allowedClasses = allowedClasses;
+	}
+
+	/**
+	 * Set the largest frame accepted from clients, in bytes. Default is 1 MB.
+	 * <p/>
+	 * Each connection's read buffer may grow to this size while receiving a
+	 * frame, and clients sending larger frames are disconnected.
+	 * 
+	 * @param maxFrameLength
+	 */
+	public void setMaxFrameLength(int maxFrameLength) {
+		this.maxFrameLength = maxFrameLength;
+	}
+
+	/**
+	 * Get the port actually listened on.
+	 * 
+	 * @return the local port
+	 */
+	public int getLocalPort() {
+		return localPort;
+	}
+
+
+	public void afterPropertiesSet() throws IOException {
+		Assert.notNull(actor, "Property 'actor' is required");
+		Assert.notNull(serviceInterface, "Property 'serviceInterface' is required");
+		Assert.isInstanceOf(serviceInterface, actor);
+		methodTable = new MethodTable(serviceInterface);
+		for (Method method : serviceInterface.getMethods()) {
+			for (Type parameterType : method.getGenericParameterTypes()) {
+				classFilter.allow(parameterType);
+			}
+		}
+		for (Class<?> allowedClass : allowedClasses) {
+			classFilter.allow(allowedClass);
+		}
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(serviceInterface.getSimpleName() + "-dispatcher-");
+		threadFactory.setDaemon(true);
+		dispatcher = Executors.newSingleThreadExecutor(threadFactory);
+		ServerSocketChannel serverChannel = ServerSocketChannel.open();
+		serverChannel.socket().bind(host == null
+				? new InetSocketAddress(InetAddress.getLoopbackAddress(), port) : new InetSocketAddress(host, port));
+		localPort = serverChannel.socket().getLocalPort();
+		endpoint = new Endpoint();
+		endpoint.setMaxFrameLength(maxFrameLength);
+		serverChannel.configureBlocking(false);
+		serverChannel.register(endpoint.selector(), SelectionKey.OP_ACCEPT);
+		endpoint.start(serviceInterface.getSimpleName() + "-server-" + localPort);
+		logger().info("Exported {} on port {}.", serviceInterface.getName(), localPort);
+	}
+
+	public void destroy() {
+		if (endpoint != null) {
+			endpoint.stop();
+		}
+		if (dispatcher != null) {
+			dispatcher.shutdown();
+		}
+	}
+
+
+	/**
+	 * Decode the arguments of an invocation and invoke the method on the actor.
+	 */
+	private void decodeAndInvoke(Connection connection, byte type, long requestId,
+			Method method, Codec.FrameReader arguments) {
+		Object[] args;
+		try {
+			args = new Object[arguments.readLength()];
+			for (int i = 0; i < args.length; i++) {
+				args[i] = arguments.readValue();
+			}
+		}
+		catch (Throwable ex) {
+			// The frame was read completely, so the connection can still be used
+			respondFailure(connection, type, requestId,
+					new RemoteActorException("Can't decode arguments of " + method + ".", ex));
+			return;
+		}
+		invoke(connection, type, requestId, method, args);
+	}
+
+	/**
+	 * Invoke a method on the actor, sending the result back unless it's a one-way invocation.
+	 */
+	private void invoke(final Connection connection, final byte type, final long requestId,
+			final Method method, final Object[] args) {
+		Object result;
+		try {
+			result = method.invoke(actor, args);
+		}
+		catch (InvocationTargetException ex) {
+			respondFailure(connection, type, requestId, ex.getCause());
+			return;
+		}
+		catch (Exception ex) {
+			respondFailure(connection, type, requestId, ex);
+			return;
+		}
+		if (type == Codec.ONE_WAY) {
+			return;
+		}
+		if (result instanceof ActorFuture) {
+			((ActorFuture<?>) result).addCallback(new FutureCallback<Object>() {
+				public void onSuccess(Object value) {
+					respond(connection, requestId, value);
+				}
+				public void onFailure(Throwable cause) {
+					respondFailure(connection, type, requestId, cause);
+				}
+			});
+		}
+		else if (result instanceof Future) {
+			try {
+				respond(connection, requestId, ((Future<?>) result).get());
+			}
+			catch (ExecutionException ex) {
+				respondFailure(connection, type, requestId, ex.getCause());
+			}
+			catch (Exception ex) {
+				respondFailure(connection, type, requestId, ex);
+			}
+		}
+		else {
+			respond(connection, requestId, result);
+		}
+	}
+
+	private void respond(Connection connection, long requestId, Object value) {
+		ByteBuffer frame;
+		try {
+			frame = new Codec.FrameBuilder(Codec.RESULT, requestId).writeValue(value).toFrame();
+		}
+		catch (IOException ex) {
+			respondFailure(connection, Codec.REQUEST, requestId,
+					new RemoteActorException("Can't encode result of invocation " + requestId + ".", ex));
+			return;
+		}
+		connection.send(frame);
+	}
+
+	private void respondFailure(Connection connection, byte type, long requestId, Throwable cause) {
+		if (type == Codec.ONE_WAY) {
+			logger().warn("One-way invocation " + requestId + " failed.", cause);
+			return;
+		}
+		ByteBuffer frame;
+		try {
+			frame = new Codec.FrameBuilder(Codec.FAILURE, requestId).writeValue(cause).toFrame();
+		}
+		catch (IOException ex) {
+			// The exception couldn't be serialized - send a description instead
+			RemoteActorException substitute = new RemoteActorException(cause.getClass().getName() + ": " + cause.getMessage());
+			try {
+				frame = new Codec.FrameBuilder(Codec.FAILURE, requestId).writeValue(substitute).toFrame();
+			}
+			catch (IOException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+		connection.send(frame);
+	}
+
+
+	private class Endpoint extends NioEndpoint {
+
+		Endpoint() throws IOException {
+			super();
+		}
+
+		Selector selector() {
+			return selector;
+		}
+
+		@Override
+		protected void accept(SelectionKey key) throws IOException {
+			SocketChannel channel = ((ServerSocketChannel) key.channel()).accept();
+			if (channel != null) {
+				channel.socket().setTcpNoDelay(true);
+				register(new Connection(channel, this));
+			}
+		}
+
+		@Override
+		protected void onFrame(final Connection connection, ByteBuffer payload) throws IOException {
+			Codec.FrameReader reader = new Codec.FrameReader(payload, serviceInterface.getClassLoader(), classFilter);
+			final byte type = reader.readByte();
+			final long requestId = reader.readVarLong();
+			if (type != Codec.REQUEST && type != Codec.ONE_WAY) {
+				throw new IOException("Unexpected frame type: " + type);
+			}
+			final Method method = methodTable.getMethod((int) reader.readVarLong());
+			// Decoding may mean deserializing, which mustn't hold up the selector thread
+			final Codec.FrameReader arguments = reader.detach();
+			dispatcher.execute(new Runnable() {
+				public void run() {
+					decodeAndInvoke(connection, type, requestId, method, arguments);
+				}
+			});
+		}
+
+		@Override
+		protected void onClose(Connection connection, Throwable cause) {
+			if (cause != null && !(cause instanceof EOFException)) {
+				logger().warn("Connection closed.", cause);
+			}
+		}
+
+		@Override
+		protected void onFailure(Throwable cause) {
+			logger().error("Remote actor endpoint failed.", cause);
+		}
+
+	}
+
+}
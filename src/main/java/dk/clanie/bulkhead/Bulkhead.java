@@ -0,0 +1,81 @@
+/**
+ * Copyright (C) 2026, the clanie-aspects contributors
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package dk.clanie.bulkhead;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+
+/**
+ * Limits the number of concurrent executions of a method.
+ * <p/>
+ * Executions exceeding the limit are rejected immediately with a
+ * {@link BulkheadFullException}, so a slow dependency can't tie up all threads.
+ * By default each annotated method has its own limit; methods with the same
+ * {@link #value() name} share one, and must have identical attributes.
+ * <p/>
+ * {@link #maxConcurrent()} is the limit. In adaptive mode it is the upper bound,
+ * and the actual limit starts at {@link #initialConcurrent()} and is adjusted
+ * down to {@link #minConcurrent()} and up to {@link #maxConcurrent()} using
+ * AIMD: it is decreased multiplicatively when executions take longer than
+ * {@link #targetLatencyMillis()}, and increased additively while the bulkhead
+ * is well utilized and executions are fast.
+ * <p/>
+ * Applied by the BulkheadAspect.
+ * 
+ * @see BulkheadLimiter
+ */
+@Target({ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Bulkhead {
+
+	/**
+	 * Name of the group sharing the limit. Default is a limit for this method only.
+	 */
+	String value() default "";
+
+	/**
+	 * Maximum number of concurrent executions.
+	 */
+	int maxConcurrent() default 10;
+
+	/**
+	 * Adjust the limit from observed latency.
+	 */
+	boolean adaptive() default false;
+
+	/**
+	 * Lowest limit in adaptive mode.
+	 */
+	int minConcurrent() default 1;
+
+	/**
+	 * Initial limit in adaptive mode. Default (0) is {@link #maxConcurrent()}.
+	 */
+	int initialConcurrent() default 0;
+
+	/**
+	 * Executions taking longer than this decrease the limit in adaptive mode.
+	 */
+	long targetLatencyMillis() default 100;
+
+}
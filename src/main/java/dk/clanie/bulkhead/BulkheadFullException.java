@@ -0,0 +1,41 @@
+/**
+ * Copyright (C) 2026, the clanie-aspects contributors
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package dk.clanie.bulkhead;
+
+/**
+ * Thrown when an execution is rejected because a {@link Bulkhead} is full.
+ */
+public class BulkheadFullException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	private final String bulkheadName;
+
+	public BulkheadFullException(String bulkheadName, int limit) {
+		super("Bulkhead " + bulkheadName + " is full (limit " + limit + ").");
+		this.bulkheadName = bulkheadName;
+	}
+
+	/**
+	 * @return name of the full bulkhead
+	 */
+	public String getBulkheadName() {
+		return bulkheadName;
+	}
+
+}
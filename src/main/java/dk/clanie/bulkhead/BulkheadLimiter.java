@@ -0,0 +1,238 @@
+/**
+ * Copyright (C) 2026, the clanie-aspects contributors
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package dk.clanie.bulkhead;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Permits and statistics of a {@link Bulkhead}.
+ * <p/>
+ * Permits are counted lock-free: a permit is taken by compare-and-set on the
+ * in-flight counter, so contending threads never block - they either get a
+ * permit or are rejected.
+ * <p/>
+ * When adaptive, the limit is kept as a fraction (the bits of a double in an
+ * AtomicLong) and adjusted by AIMD on every release: an execution slower than
+ * the target latency multiplies the limit by {@value #BACKOFF}, at most once
+ * per target latency period so a burst of slow executions completing together
+ * counts as one signal; a fast execution while at least half the permits are
+ * in use adds <code>1 / limit</code>, growing the limit by about one permit per
+ * limit's worth of executions.
+ */
+public class BulkheadLimiter {
+
+	static final double BACKOFF = 0.9;
+
+	private final String name;
+	private final Bulkhead bulkhead;
+	private final boolean adaptive;
+	private final int minLimit;
+	private final int maxLimit;
+	private final long targetLatencyNanos;
+	private final Clock clock;
+
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private final AtomicLong limitBits;
+	private final AtomicLong lastDecrease;
+
+	private final AtomicLong accepted = new AtomicLong();
+	private final AtomicLong rejected = new AtomicLong();
+	private final AtomicLong failed = new AtomicLong();
+	private final AtomicLong slow = new AtomicLong();
+
+
+	BulkheadLimiter(String name, Bulkhead bulkhead) {
+		this(name, bulkhead, bulkhead.adaptive(), bulkhead.minConcurrent(),
+				bulkhead.initialConcurrent() == 0 ? bulkhead.maxConcurrent() : bulkhead.initialConcurrent(),
+				bulkhead.maxConcurrent(), TimeUnit.MILLISECONDS.toNanos(bulkhead.targetLatencyMillis()));
+	}
+
+
+	BulkheadLimiter(String name, Bulkhead bulkhead, boolean adaptive, int minLimit, int initialLimit, int maxLimit,
+			long targetLatencyNanos) {
+		this(name, bulkhead, adaptive, minLimit, initialLimit, maxLimit, targetLatencyNanos, Clock.SYSTEM);
+	}
+
+
+	BulkheadLimiter(String name, Bulkhead bulkhead, boolean adaptive, int minLimit, int initialLimit, int maxLimit,
+			long targetLatencyNanos, Clock clock) {
+		if (maxLimit < 1) {
+			throw new IllegalArgumentException("Bulkhead " + name + ": maxConcurrent must be positive.");
+		}
+		if (adaptive && (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit)) {
+			throw new IllegalArgumentException("Bulkhead " + name
+					+ ": require 0 < minConcurrent <= initialConcurrent <= maxConcurrent.");
+		}
+		this.name = name;
+		this.bulkhead = bulkhead;
+		this.adaptive = adaptive;
+		this.minLimit = minLimit;
+		this.maxLimit = maxLimit;
+		this.targetLatencyNanos = targetLatencyNanos;
+		this.clock = clock;
+		this.lastDecrease = new AtomicLong(clock.nanoTime());
+		double limit = adaptive ? initialLimit : maxLimit;
+		this.limitBits = new AtomicLong(Double.doubleToRawLongBits(limit));
+	}
+
+
+	/**
+	 * Takes a permit, if one is available.
+	 * 
+	 * @return true if a permit was taken and must be released
+	 */
+	boolean tryAcquire() {
+		for (;;) {
+			int current = inFlight.get();
+			if (current >= getLimit()) {
+				rejected.incrementAndGet();
+				return false;
+			}
+			if (inFlight.compareAndSet(current, current + 1)) {
+				accepted.incrementAndGet();
+				return true;
+			}
+		}
+	}
+
+
+	/**
+	 * Releases a permit and, when adaptive, adjusts the limit.
+	 * 
+	 * @param latencyNanos duration of the execution
+	 * @param failure true if the execution threw an exception
+	 */
+	void release(long latencyNanos, boolean failure) {
+		int inFlightBefore = inFlight.getAndDecrement();
+		if (failure) {
+			failed.incrementAndGet();
+		}
+		boolean tooSlow = latencyNanos > targetLatencyNanos;
+		if (tooSlow) {
+			slow.incrementAndGet();
+		}
+		if (!adaptive) {
+			return;
+		}
+		if (tooSlow) {
+			long last = lastDecrease.get();
+			long now = clock.nanoTime();
+			if (now - last >= targetLatencyNanos && lastDecrease.compareAndSet(last, now)) {
+				updateLimit(true);
+			}
+		}
+		else if (inFlightBefore * 2 >= getLimit()) {
+			updateLimit(false);
+		}
+	}
+
+
+	private void updateLimit(boolean decrease) {
+		for (;;) {
+			long bits = limitBits.get();
+			double limit = Double.longBitsToDouble(bits);
+			double updated = decrease ? Math.max(minLimit, limit * BACKOFF) : Math.min(maxLimit, limit + 1 / limit);
+			if (updated == limit || limitBits.compareAndSet(bits, Double.doubleToRawLongBits(updated))) {
+				return;
+			}
+		}
+	}
+
+
+	/**
+	 * @return the name; the group name or the signature of the annotated method
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return the annotation configuring this bulkhead, or null if not created from one
+	 */
+	Bulkhead getBulkhead() {
+		return bulkhead;
+	}
+
+	/**
+	 * @return the current maximum number of concurrent executions
+	 */
+	public int getLimit() {
+		return (int) Double.longBitsToDouble(limitBits.get());
+	}
+
+	/**
+	 * @return the number of executions currently in progress
+	 */
+	public int getInFlight() {
+		return inFlight.get();
+	}
+
+	/**
+	 * @return the number of executions permitted
+	 */
+	public long getAccepted() {
+		return accepted.get();
+	}
+
+	/**
+	 * @return the number of executions rejected because the bulkhead was full
+	 */
+	public long getRejected() {
+		return rejected.get();
+	}
+
+	/**
+	 * @return the number of permitted executions that threw an exception
+	 */
+	public long getFailed() {
+		return failed.get();
+	}
+
+	/**
+	 * @return the number of permitted executions slower than the target latency
+	 */
+	public long getSlow() {
+		return slow.get();
+	}
+
+	@Override
+	public String toString() {
+		return "Bulkhead " + name + ": limit=" + getLimit() + ", inFlight=" + getInFlight()
+				+ ", accepted=" + getAccepted() + ", rejected=" + getRejected()
+				+ ", failed=" + getFailed() + ", slow=" + getSlow();
+	}
+
+
+	/**
+	 * Source of the time limiting how often the limit is decreased.
+	 */
+	interface Clock {
+
+		Clock SYSTEM = new Clock() {
+			public long nanoTime() {
+				return System.nanoTime();
+			}
+		};
+
+		long nanoTime();
+
+	}
+
+}
@@ -19,18 +19,31 @@ package dk.clanie.actor;
 
 import static org.hamcrest.Matchers.closeTo;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.startsWith;
 import static org.junit.Assert.assertThat;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.joda.time.Duration;
 import org.joda.time.Instant;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.springframework.aop.framework.ProxyFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.task.SyncTaskExecutor;
 import org.springframework.test.annotation.Timed;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
@@ -152,4 +165,187 @@ public class ActorAspectTest {
 		assertThat(future.get(), equalTo(Boolean.TRUE));
 	}
 
+	/**
+	 * Tests that elements published by an actor are delivered on the actor's thread
+	 * as requested, and that the actor processes other messages between the chunks.
+	 * 
+	 * @throws InterruptedException
+	 * @throws ExecutionException
+	 * @throws TimeoutException
+	 */
+	@Test
+	public void testPublisher() throws InterruptedException, ExecutionException, TimeoutException {
+		final int count = 1000;
+		final int chunkSize = 10;
+		final List<Integer> received = new ArrayList<Integer>();
+		final List<String> threadNames = new ArrayList<String>();
+		final CountDownLatch subscribed = new CountDownLatch(1);
+		final CountDownLatch completed = new CountDownLatch(1);
+		final Subscription[] subscription = new Subscription[1];
+		final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+		final Future<?>[] midStream = new Future<?>[1];
+		final boolean[] midStreamDoneBeforeComplete = new boolean[1];
+		actor.methodPublishing(count).subscribe(new Subscriber<Integer>() {
+			@Override
+			public void onSubscribe(Subscription s) {
+				subscription[0] = s;
+				subscribed.countDown();
+			}
+			@Override
+			public void onNext(Integer element) {
+				received.add(element);
+				threadNames.add(Thread.currentThread().getName());
+				if (received.size() == count / 2) {
+					midStream[0] = actor.methodReturningTrue();
+				}
+				if (received.size() % chunkSize == 0) {
+					subscription[0].request(chunkSize);
+				}
+			}
+			@Override
+			public void onError(Throwable cause) {
+				error.set(cause);
+				completed.countDown();
+			}
+			@Override
+			public void onComplete() {
+				midStreamDoneBeforeComplete[0] = midStream[0] != null && midStream[0].isDone();
+				completed.countDown();
+			}
+		});
+		assertThat(subscribed.await(30, TimeUnit.SECONDS), equalTo(true));
+
+		// Nothing requested yet - the actor must still be responsive
+		assertThat(actor.methodReturningTrue().get(30, TimeUnit.SECONDS), equalTo(Boolean.TRUE));
+		assertThat(received.size(), equalTo(0));
+
+		subscription[0].request(chunkSize);
+		assertThat(completed.await(30, TimeUnit.SECONDS), equalTo(true));
+		assertThat(error.get(), nullValue());
+		assertThat(received.size(), equalTo(count));
+
+		// Sent half way through the stream - must be processed between chunks
+		assertThat(midStreamDoneBeforeComplete[0], equalTo(true));
+		assertThat(midStream[0].get(), equalTo((Object) Boolean.TRUE));
+		for (int i = 0; i < count; i++) {
+			assertThat(received.get(i), equalTo(i));
+			assertThat(threadNames.get(i), startsWith("firstTestActorImpl,"));
+		}
+	}
+
+	/**
+	 * Tests that methods declaring a subtype of Publisher as return type are
+	 * rejected rather than returning null.
+	 */
+	@Test(expected = IllegalStateException.class)
+	public void testPublisherSubtypeRejected() {
+		ProxyFactory proxyFactory = new ProxyFactory(new IteratorPublishing() {
+			public IteratorPublisher<Integer> methodPublishing() {
+				return new IteratorPublisher<Integer>(Collections.singletonList(1));
+			}
+		});
+		proxyFactory.addAdvice(new ActorExecutionInterceptor(new SyncTaskExecutor()));
+		((IteratorPublishing) proxyFactory.getProxy()).methodPublishing();
+	}
+
+	public interface IteratorPublishing {
+		IteratorPublisher<Integer> methodPublishing();
+	}
+
+	/**
+	 * Tests that the collection argument of a Chunked method is processed in
+	 * chunks, and that other messages are processed between the chunks.
+	 * 
+	 * @throws InterruptedException
+	 * @throws ExecutionException
+	 * @throws TimeoutException
+	 */
+	@Test
+	public void testChunked() throws InterruptedException, ExecutionException, TimeoutException {
+		List<Integer> elements = new ArrayList<Integer>();
+		for (int i = 0; i < 45; i++) {
+			elements.add(i);
+		}
+		List<List<Integer>> chunksSeen = Collections.synchronizedList(new ArrayList<List<Integer>>());
+		Future<?> future = actor.methodProcessingChunks(elements, chunksSeen);
+
+		// Submitted after the first chunk - must not wait for the rest
+		assertThat(actor.methodReturningTrue().get(30, TimeUnit.SECONDS), equalTo(Boolean.TRUE));
+		assertThat(chunksSeen.size(), lessThan(5));
+
+		future.get(30, TimeUnit.SECONDS);
+		assertThat(chunksSeen.size(), equalTo(5));
+		List<Integer> processed = new ArrayList<Integer>();
+		for (int i = 0; i < chunksSeen.size(); i++) {
+			assertThat(chunksSeen.get(i).size(), equalTo(i < 4 ? 10 : 5));
+			processed.addAll(chunksSeen.get(i));
+		}
+		assertThat(processed, equalTo(elements));
+	}
+
+	/**
+	 * Tests that actors with Chunked methods returning a single result are
+	 * rejected when they are created.
+	 */
+	@Test(expected = IllegalStateException.class)
+	public void testChunkedWithResultRejected() {
+		new ActorAnnotationBeanPostProcessor().postProcessAfterInitialization(new ChunkedWithResultActor(), "actor");
+	}
+
+	/**
+	 * Tests that actors with Chunked methods with more than one collection
+	 * parameter must select the one to split.
+	 */
+	@Test(expected = IllegalStateException.class)
+	public void testChunkedWithTwoCollectionsRejected() {
+		new ActorAnnotationBeanPostProcessor().postProcessAfterInitialization(new ChunkedWithTwoListsActor(), "actor");
+	}
+
+	/**
+	 * Tests that actors with Chunked methods returning a Publisher are rejected.
+	 */
+	@Test(expected = IllegalStateException.class)
+	public void testChunkedPublisherRejected() {
+		new ActorAnnotationBeanPostProcessor().postProcessAfterInitialization(new ChunkedPublisherActor(), "actor");
+	}
+
+
+	// Misconfigured actors. Inner classes, so component scanning doesn't pick them up.
+
+	public interface ChunkedWithResult {
+		@Chunked(size = 10)
+		int methodCountingChunks(List<Integer> elements);
+	}
+
+	@Actor
+	public class ChunkedWithResultActor implements ChunkedWithResult {
+		public int methodCountingChunks(List<Integer> elements) {
+			return elements.size();
+		}
+	}
+
+	public interface ChunkedWithTwoLists {
+		@Chunked(size = 10)
+		Future<?> methodWithTwoLists(List<Integer> elements, List<Integer> moreElements);
+	}
+
+	@Actor
+	public class ChunkedWithTwoListsActor implements ChunkedWithTwoLists {
+		public Future<?> methodWithTwoLists(List<Integer> elements, List<Integer> moreElements) {
+			return null;
+		}
+	}
+
+	public interface ChunkedPublisher {
+		@Chunked(size = 10)
+		Publisher<Integer> methodPublishingChunks(List<Integer> elements);
+	}
+
+	@Actor
+	public class ChunkedPublisherActor implements ChunkedPublisher {
+		public Publisher<Integer> methodPublishingChunks(List<Integer> elements) {
+			return new IteratorPublisher<Integer>(elements);
+		}
+	}
+
 }
@@ -0,0 +1,317 @@
+/**
+ * Copyright (C) 2026, the clanie-aspects contributors
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package dk.clanie.actor;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.aop.framework.ProxyFactory;
+
+
+/**
+ * Test AffinityDispatcher.
+ */
+public class AffinityDispatcherTest {
+
+	private static final int MAILBOXES = 8;
+	private static final int MESSAGES = 20000;
+
+	private final AffinityDispatcher dispatcher = new AffinityDispatcher(4);
+
+
+	@After
+	public void stopDispatcher() {
+		dispatcher.destroy();
+	}
+
+
+	/**
+	 * Tests that each mailbox processes its messages one at a time, in order,
+	 * even when messages are sent from several threads and from other actors.
+	 * 
+	 * @throws InterruptedException
+	 */
+	@Test
+	public void testSerialExecutionInOrder() throws InterruptedException {
+		final CountDownLatch done = new CountDownLatch(MAILBOXES);
+		final AtomicInteger violations = new AtomicInteger();
+		final List<AffinityDispatcher.Mailbox> mailboxes = new ArrayList<AffinityDispatcher.Mailbox>();
+		for (int m = 0; m < MAILBOXES; m++) {
+			mailboxes.add(dispatcher.createMailbox("mailbox" + m));
+		}
+		for (int m = 0; m < MAILBOXES; m++) {
+			final AffinityDispatcher.Mailbox mailbox = mailboxes.get(m);
+			final AffinityDispatcher.Mailbox next = mailboxes.get((m + 1) % MAILBOXES);
+			final AtomicBoolean running = new AtomicBoolean(false);
+			final int[] expected = new int[1];
+			Thread sender = new Thread() {
+				@Override
+				public void run() {
+					for (int i = 0; i < MESSAGES; i++) {
+						final int sequenceNumber = i;
+						mailbox.execute(new Runnable() {
+							public void run() {
+								if (!running.compareAndSet(false, true) || expected[0] != sequenceNumber) {
+									violations.incrementAndGet();
+								}
+								expected[0]++;
+								// Also send a message to another actor from within this one
+								next.execute(new Runnable() {
+									public void run() {
+									}
+								});
+								running.set(false);
+								if (sequenceNumber == MESSAGES - 1) {
+									done.countDown();
+								}
+							}
+						});
+					}
+				}
+			};
+			sender.start();
+		}
+		assertThat(done.await(30, TimeUnit.SECONDS), equalTo(true));
+		assertThat(violations.get(), equalTo(0));
+	}
+
+	/**
+	 * Tests that a message sent from an actor to an idle actor is processed on the
+	 * sender's worker.
+	 * 
+	 * @throws InterruptedException
+	 */
+	@Test
+	public void testReceiverRunsOnSendersWorker() throws InterruptedException {
+		final AffinityDispatcher.Mailbox sender = dispatcher.createMailbox("sender");
+		final AffinityDispatcher.Mailbox receiver = dispatcher.createMailbox("receiver");
+		final Thread[] threads = new Thread[2];
+		final CountDownLatch done = new CountDownLatch(1);
+		sender.execute(new Runnable() {
+			public void run() {
+				threads[0] = Thread.currentThread();
+				receiver.execute(new Runnable() {
+					public void run() {
+						threads[1] = Thread.currentThread();
+						done.countDown();
+					}
+				});
+			}
+		});
+		assertThat(done.await(30, TimeUnit.SECONDS), equalTo(true));
+		assertThat(threads[1], equalTo(threads[0]));
+	}
+
+	/**
+	 * Tests that an actor can call a blocking method on another actor with a
+	 * single worker, where the callee can only run on the caller's worker.
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testBlockingCallOnSingleWorker() throws Exception {
+		AffinityDispatcher singleWorker = new AffinityDispatcher(1);
+		try {
+			final AtomicBoolean calleeRan = new AtomicBoolean(false);
+			ProxyFactory proxyFactory = new ProxyFactory(new Callable<Object>() {
+				public Object call() {
+					calleeRan.set(true);
+					return null;
+				}
+			});
+			proxyFactory.addAdvice(new ActorExecutionInterceptor(singleWorker.createMailbox("callee")));
+			@SuppressWarnings("unchecked")
+			final Callable<Object> callee = (Callable<Object>) proxyFactory.getProxy();
+			final CountDownLatch done = new CountDownLatch(1);
+			singleWorker.createMailbox("caller").execute(new Runnable() {
+				public void run() {
+					try {
+						callee.call();
+						done.countDown();
+					}
+					catch (Exception e) {
+						e.printStackTrace();
+					}
+				}
+			});
+			assertThat(done.await(30, TimeUnit.SECONDS), equalTo(true));
+			assertThat(calleeRan.get(), equalTo(true));
+		}
+		finally {
+			singleWorker.destroy();
+		}
+	}
+
+	/**
+	 * Tests that a worker waiting for a blocking call doesn't run actors which
+	 * might call back into the waiting actor, while the callee is busy on
+	 * another worker.
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testBlockingCallDoesNotRunOtherActors() throws Exception {
+		AffinityDispatcher twoWorkers = new AffinityDispatcher(2);
+		try {
+			final CountDownLatch bStarted = new CountDownLatch(1);
+			final CountDownLatch releaseB = new CountDownLatch(1);
+			final Callable<Object> b = actor(twoWorkers.createMailbox("b"), new Callable<Object>() {
+				public Object call() throws InterruptedException {
+					bStarted.countDown();
+					releaseB.await(30, TimeUnit.SECONDS);
+					return null;
+				}
+			});
+			final AffinityDispatcher.Mailbox aMailbox = twoWorkers.createMailbox("a");
+			final Callable<Object> a = actor(aMailbox, new Callable<Object>() {
+				public Object call() {
+					return null;
+				}
+			});
+			final AffinityDispatcher.Mailbox cMailbox = twoWorkers.createMailbox("c");
+			final CountDownLatch aDone = new CountDownLatch(1);
+			final CountDownLatch cDone = new CountDownLatch(1);
+
+			// B is busy on one worker
+			new Thread() {
+				@Override
+				public void run() {
+					try {
+						b.call();
+					}
+					catch (Exception e) {
+						e.printStackTrace();
+					}
+				}
+			}.start();
+			assertThat(bStarted.await(30, TimeUnit.SECONDS), equalTo(true));
+			aMailbox.execute(new Runnable() {
+				public void run() {
+					// C is scheduled on A's worker, and calls back into A
+					cMailbox.execute(new Runnable() {
+						public void run() {
+							try {
+								a.call();
+								cDone.countDown();
+							}
+							catch (Exception e) {
+								e.printStackTrace();
+							}
+						}
+					});
+					try {
+						b.call();
+						aDone.countDown();
+					}
+					catch (Exception e) {
+						e.printStackTrace();
+					}
+				}
+			});
+			Thread.sleep(200L);
+			releaseB.countDown();
+			assertThat(aDone.await(10, TimeUnit.SECONDS), equalTo(true));
+			assertThat(cDone.await(10, TimeUnit.SECONDS), equalTo(true));
+		}
+		finally {
+			twoWorkers.destroy();
+		}
+	}
+
+	/**
+	 * Tests that destroy cancels the Futures of messages not yet processed and
+	 * waits for the workers to finish.
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testDestroyCancelsPending() throws Exception {
+		AffinityDispatcher.Mailbox mailbox = dispatcher.createMailbox("mailbox");
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		ActorFutureTask<Object> blocking = new ActorFutureTask<Object>(new Callable<Object>() {
+			public Object call() throws InterruptedException {
+				started.countDown();
+				release.await(30, TimeUnit.SECONDS);
+				return "done";
+			}
+		});
+		ActorFutureTask<Object> pending = new ActorFutureTask<Object>(new Callable<Object>() {
+			public Object call() {
+				return "not expected";
+			}
+		});
+		mailbox.execute(blocking);
+		mailbox.execute(pending);
+		assertThat(started.await(30, TimeUnit.SECONDS), equalTo(true));
+
+		Thread destroyer = new Thread() {
+			@Override
+			public void run() {
+				dispatcher.destroy();
+			}
+		};
+		destroyer.start();
+		assertCancelled(pending);
+		assertThat(destroyer.isAlive(), equalTo(true)); // Waiting for the blocked worker
+		release.countDown();
+		destroyer.join(30000L);
+		assertThat(destroyer.isAlive(), equalTo(false));
+		assertThat(blocking.get(), equalTo((Object) "done"));
+
+		// Messages sent after destroy are cancelled too
+		ActorFutureTask<Object> late = new ActorFutureTask<Object>(new Callable<Object>() {
+			public Object call() {
+				return "not expected";
+			}
+		});
+		mailbox.execute(late);
+		assertCancelled(late);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Callable<Object> actor(AffinityDispatcher.Mailbox mailbox, Callable<Object> target) {
+		ProxyFactory proxyFactory = new ProxyFactory(target);
+		proxyFactory.addAdvice(new ActorExecutionInterceptor(mailbox));
+		return (Callable<Object>) proxyFactory.getProxy();
+	}
+
+	private static void assertCancelled(ActorFutureTask<Object> future) throws InterruptedException, ExecutionException, TimeoutException {
+		try {
+			future.get(30, TimeUnit.SECONDS);
+			fail("Expected CancellationException.");
+		}
+		catch (CancellationException e) {
+		}
+	}
+
+}
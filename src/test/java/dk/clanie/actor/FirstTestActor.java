@@ -17,8 +17,11 @@
  */
 package dk.clanie.actor;
 
+import java.util.List;
 import java.util.concurrent.Future;
 
+import org.reactivestreams.Publisher;
+
 /**
  * Test actor interface.
  * 
@@ -38,6 +41,24 @@ public interface FirstTestActor {
 
 	Future<Boolean> methodReturningTrue();
 
+	/**
+	 * Publishes the numbers from 0 (inclusive) to count (exclusive).
+	 * 
+	 * @param count
+	 * @return
+	 */
+	Publisher<Integer> methodPublishing(int count);
+
+	/**
+	 * Adds the elements it is called with to chunksSeen, in chunks of 10.
+	 * 
+	 * @param elements
+	 * @param chunksSeen
+	 * @return
+	 */
+	@Chunked(size = 10, parameter = 0)
+	Future<?> methodProcessingChunks(List<Integer> elements, List<List<Integer>> chunksSeen);
+
 	/**
 	 * Blocks caller until all previously submitted asynchronous calls completes.
 	 * 
@@ -17,9 +17,14 @@
  */
 package dk.clanie.actor;
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.concurrent.Future;
 
 import org.joda.time.Instant;
+import org.reactivestreams.Publisher;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.AsyncResult;
 
@@ -68,6 +73,37 @@ public class FirstTestActorImpl implements FirstTestActor {
 		return new AsyncResult<Boolean>(Boolean.TRUE);
 	}
 
+	@Override
+	public Publisher<Integer> methodPublishing(final int count) {
+		return new IteratorPublisher<Integer>(new Iterator<Integer>() {
+			private int next = 0;
+			@Override
+			public boolean hasNext() {
+				return next < count;
+			}
+			@Override
+			public Integer next() {
+				if (!hasNext()) throw new NoSuchElementException();
+				return next++;
+			}
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		});
+	}
+
+	@Override
+	public Future<?> methodProcessingChunks(List<Integer> elements, List<List<Integer>> chunksSeen) {
+		try {
+			Thread.sleep(ActorAspectTest.SLEEPTIME / 10);
+		} catch (InterruptedException e) {
+			e.printStackTrace();
+		}
+		chunksSeen.add(new ArrayList<Integer>(elements));
+		return new AsyncResult<Object>(null);
+	}
+
 	protected void process(String method, int arg) {
 		Thread currentThread = Thread.currentThread();
 		method = method(method);
@@ -0,0 +1,140 @@
+/**
+ * Copyright (C) 2026, the clanie-aspects contributors
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package dk.clanie.actor;
+
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.joda.time.Duration;
+import org.joda.time.Instant;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+
+/**
+ * Test ScatterGather.
+ * <p/>
+ * The context is dirtied after each test so calls left running by one test
+ * doesn't delay the next.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration("scatterGatherTestContext.xml")
+@DirtiesContext(classMode = ClassMode.AFTER_EACH_TEST_METHOD)
+public class ScatterGatherTest {
+
+	@Autowired private List<SecondTestActor> actors;
+
+	private static final long TIMEOUT = ActorAspectTest.SLEEPTIME * 10;
+
+	private static final ScatterGather.Call<SecondTestActor, Object> CALL = new ScatterGather.Call<SecondTestActor, Object>() {
+		@Override
+		public Future<?> call(SecondTestActor actor) {
+			return actor.methodReturningFuture(0);
+		}
+	};
+
+
+	/**
+	 * Tests that all actors are called in parallel and all results gathered.
+	 * 
+	 * @throws InterruptedException
+	 * @throws ExecutionException
+	 * @throws TimeoutException
+	 */
+	@Test
+	public void testAll() throws InterruptedException, ExecutionException, TimeoutException {
+		Instant startTime = new Instant();
+		GatherResult<Object> result = ScatterGather.all(actors, CALL, TIMEOUT, TimeUnit.MILLISECONDS).get(30, TimeUnit.SECONDS);
+		Duration executionTime = new Duration(startTime, new Instant());
+		assertThat(result.isSatisfied(), equalTo(true));
+		assertThat(result.isTimedOut(), equalTo(false));
+		assertThat(result.getResults(), hasSize(actors.size()));
+		assertThat(result.getPending(), equalTo(0));
+		assertThat(executionTime.getMillis(), lessThan(2L * ActorAspectTest.SLEEPTIME));
+	}
+
+	/**
+	 * Tests that a quorum is reached even if one of the calls fails.
+	 * 
+	 * @throws InterruptedException
+	 * @throws ExecutionException
+	 * @throws TimeoutException
+	 */
+	@Test
+	public void testQuorumWithFailure() throws InterruptedException, ExecutionException, TimeoutException {
+		final SecondTestActor failing = actors.get(0);
+		ScatterGather.Call<SecondTestActor, Object> call = new ScatterGather.Call<SecondTestActor, Object>() {
+			@Override
+			public Future<?> call(SecondTestActor actor) {
+				if (actor == failing) {
+					throw new IllegalStateException("Failing on purpose");
+				}
+				return actor.methodReturningFuture(0);
+			}
+		};
+		GatherResult<Object> result = ScatterGather.quorum(actors, call, TIMEOUT, TimeUnit.MILLISECONDS).get(30, TimeUnit.SECONDS);
+		assertThat(result.isSatisfied(), equalTo(true));
+		assertThat(result.getResults(), hasSize(actors.size() / 2 + 1));
+		assertThat(result.getFailures(), hasSize(1));
+	}
+
+	/**
+	 * Tests that the first successful result completes the operation.
+	 * 
+	 * @throws InterruptedException
+	 * @throws ExecutionException
+	 * @throws TimeoutException
+	 */
+	@Test
+	public void testFirstSuccess() throws InterruptedException, ExecutionException, TimeoutException {
+		GatherResult<Object> result = ScatterGather.firstSuccess(actors, CALL, TIMEOUT, TimeUnit.MILLISECONDS).get(30, TimeUnit.SECONDS);
+		assertThat(result.isSatisfied(), equalTo(true));
+		assertThat(result.getResults(), hasSize(1));
+	}
+
+	/**
+	 * Tests that partial results are returned when the deadline expires.
+	 * 
+	 * @throws InterruptedException
+	 * @throws ExecutionException
+	 * @throws TimeoutException
+	 */
+	@Test
+	public void testTimeout() throws InterruptedException, ExecutionException, TimeoutException {
+		GatherResult<Object> result = ScatterGather.all(actors, CALL, ActorAspectTest.SLEEPTIME / 4, TimeUnit.MILLISECONDS).get(30, TimeUnit.SECONDS);
+		assertThat(result.isSatisfied(), equalTo(false));
+		assertThat(result.isTimedOut(), equalTo(true));
+		assertThat(result.getResults(), empty());
+		assertThat(result.getPending(), equalTo(actors.size()));
+	}
+
+}
@@ -0,0 +1,354 @@
+/**
+ * Copyright (C) 2026, the clanie-aspects contributors
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package dk.clanie.actor.remote;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.joda.time.Duration;
+import org.joda.time.Instant;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+
+import dk.clanie.actor.ActorAspectTest;
+import dk.clanie.actor.ActorFuture;
+import dk.clanie.actor.FirstTestActor;
+
+
+/**
+ * Test RemoteActorExporter and RemoteActorClient.
+ * <p/>
+ * The exporters and the clients are in separate application contexts, as they
+ * would be in separate JVMs.
+ */
+public class RemoteActorTest {
+
+	private ConfigurableApplicationContext exporterContext;
+	private ConfigurableApplicationContext clientContext;
+
+	private FirstTestActor actor;
+	private RemoteTestActor remoteTestActor;
+
+	private static final int ITERATIONS = 5;
+
+
+	@Before
+	public void connect() {
+		exporterContext = new ClassPathXmlApplicationContext("remoteActorExporterContext.xml", getClass());
+		System.setProperty("remoteActorTest.firstTestActorPort", String.valueOf(
+				exporterContext.getBean("firstTestActorExporter", RemoteActorExporter.class).getLocalPort()));
+		System.setProperty("remoteActorTest.remoteTestActorPort", String.valueOf(
+				exporterContext.getBean("remoteTestActorExporter", RemoteActorExporter.class).getLocalPort()));
+		clientContext = new ClassPathXmlApplicationContext("remoteActorClientContext.xml", getClass());
+		actor = clientContext.getBean("firstTestActor", FirstTestActor.class);
+		remoteTestActor = clientContext.getBean("remoteTestActor", RemoteTestActor.class);
+	}
+
+	@After
+	public void disconnect() {
+		clientContext.close();
+		exporterContext.close();
+	}
+
+
+	/**
+	 * Tests retrieving the result of a method returning Future.
+	 * 
+	 * @throws InterruptedException
+	 * @throws ExecutionException
+	 * @throws TimeoutException
+	 */
+	@Test
+	public void testFutureResult() throws InterruptedException, ExecutionException, TimeoutException {
+		Future<Boolean> future = actor.methodReturningTrue();
+		assertThat(future, instanceOf(ActorFuture.class));
+		assertThat(future.get(30, TimeUnit.SECONDS), equalTo(Boolean.TRUE));
+	}
+
+	/**
+	 * Tests that pipelined one-way invocations are executed one at a time, in
+	 * order, on the remote actor - and that a blocking invocation waits for them.
+	 */
+	@Test
+	public void testSerialExecution() {
+		Instant startTime = new Instant();
+		for (int i = 0; i < ITERATIONS; i++) {
+			actor.voidMethod(i);
+		}
+		actor.sync();
+		Duration executionTime = new Duration(startTime, new Instant());
+		assertThat(executionTime.getMillis(), greaterThanOrEqualTo((long) ITERATIONS * ActorAspectTest.SLEEPTIME));
+	}
+
+	/**
+	 * Tests that pipelined invocations returning Futures all complete.
+	 * 
+	 * @throws InterruptedException
+	 * @throws ExecutionException
+	 * @throws TimeoutException
+	 */
+	@Test
+	public void testPipelinedFutures() throws InterruptedException, ExecutionException, TimeoutException {
+		Future<?>[] futures = new Future<?>[ITERATIONS];
+		for (int i = 0; i < ITERATIONS; i++) {
+			futures[i] = actor.methodReturningFuture(i);
+		}
+		for (int i = 0; i < ITERATIONS; i++) {
+			futures[i].get(30, TimeUnit.SECONDS);
+		}
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testPublisherNotSupported() {
+		actor.methodPublishing(10);
+	}
+
+	/**
+	 * Tests that an exception thrown by the remote actor fails the Future.
+	 * 
+	 * @throws InterruptedException
+	 * @throws TimeoutException
+	 */
+	@Test
+	public void testFailure() throws InterruptedException, TimeoutException {
+		Future<Integer> future = remoteTestActor.methodFailing("Expected failure");
+		try {
+			future.get(30, TimeUnit.SECONDS);
+			fail("Expected ExecutionException.");
+		}
+		catch (ExecutionException e) {
+			assertThat(e.getCause(), instanceOf(IllegalStateException.class));
+			assertThat(e.getCause().getMessage(), equalTo("Expected failure"));
+		}
+	}
+
+	/**
+	 * Tests that an exception which can't be serialized is replaced by a RemoteActorException.
+	 * 
+	 * @throws InterruptedException
+	 * @throws TimeoutException
+	 */
+	@Test
+	public void testUnserializableFailure() throws InterruptedException, TimeoutException {
+		Future<Integer> future = remoteTestActor.methodFailingUnserializable();
+		try {
+			future.get(30, TimeUnit.SECONDS);
+			fail("Expected ExecutionException.");
+		}
+		catch (ExecutionException e) {
+			assertThat(e.getCause(), instanceOf(RemoteActorException.class));
+			assertThat(e.getCause().getMessage(), containsString("UnserializableException"));
+		}
+	}
+
+	/**
+	 * Tests that a result which can't be serialized fails the Future with a RemoteActorException.
+	 * 
+	 * @throws InterruptedException
+	 * @throws TimeoutException
+	 */
+	@Test
+	public void testUnserializableResult() throws InterruptedException, TimeoutException {
+		Future<Object> future = remoteTestActor.methodReturningUnserializable();
+		try {
+			future.get(30, TimeUnit.SECONDS);
+			fail("Expected ExecutionException.");
+		}
+		catch (ExecutionException e) {
+			assertThat(e.getCause(), instanceOf(RemoteActorException.class));
+		}
+	}
+
+	/**
+	 * Tests that invocations waiting for results fail when the connection is
+	 * lost, and that later invocations fail immediately.
+	 * 
+	 * @throws InterruptedException
+	 * @throws TimeoutException
+	 */
+	@Test
+	public void testConnectionLost() throws InterruptedException, TimeoutException {
+		Future<Integer> future = remoteTestActor.methodSleeping(ActorAspectTest.SLEEPTIME);
+		exporterContext.close();
+		try {
+			future.get(30, TimeUnit.SECONDS);
+			fail("Expected ExecutionException.");
+		}
+		catch (ExecutionException e) {
+			assertThat(e.getCause(), instanceOf(RemoteActorException.class));
+		}
+		try {
+			remoteTestActor.methodSleeping(0L);
+			fail("Expected RemoteActorException.");
+		}
+		catch (RemoteActorException e) {
+			assertThat(e.getMessage(), equalTo("Connection closed."));
+		}
+	}
+
+	/**
+	 * Tests that serialized arguments are only accepted if their classes are allowed,
+	 * and that the connection remains usable after a rejected invocation.
+	 * 
+	 * @throws InterruptedException
+	 * @throws ExecutionException
+	 * @throws TimeoutException
+	 */
+	@Test
+	public void testClassNotAllowed() throws InterruptedException, ExecutionException, TimeoutException {
+		Future<String> future = remoteTestActor.methodTakingObject(new NotAllowed());
+		try {
+			future.get(30, TimeUnit.SECONDS);
+			fail("Expected ExecutionException.");
+		}
+		catch (ExecutionException e) {
+			assertThat(e.getCause(), instanceOf(RemoteActorException.class));
+			assertThat(e.getCause().getCause(), instanceOf(InvalidClassException.class));
+		}
+		assertThat(remoteTestActor.methodTakingObject(new BigDecimal("3.14")).get(30, TimeUnit.SECONDS), equalTo("3.14"));
+		assertThat(remoteTestActor.methodTakingValue(new RemoteTestActor.Value("x")).get(30, TimeUnit.SECONDS), equalTo("x"));
+	}
+
+	/**
+	 * Tests that frames larger than the read buffer's initial size are accepted
+	 * up to the exporter's maximum frame length, and that larger frames close the
+	 * connection.
+	 * 
+	 * @throws InterruptedException
+	 * @throws ExecutionException
+	 * @throws TimeoutException
+	 */
+	@Test
+	public void testMaxFrameLength() throws InterruptedException, ExecutionException, TimeoutException {
+		assertThat(remoteTestActor.methodTakingBytes(new byte[100000]).get(30, TimeUnit.SECONDS), equalTo(100000));
+		assertThat(remoteTestActor.methodTakingBytes(new byte[10]).get(30, TimeUnit.SECONDS), equalTo(10));
+		Future<Integer> future = remoteTestActor.methodTakingBytes(new byte[200000]);
+		try {
+			future.get(30, TimeUnit.SECONDS);
+			fail("Expected ExecutionException.");
+		}
+		catch (ExecutionException e) {
+			assertThat(e.getCause(), instanceOf(RemoteActorException.class));
+		}
+	}
+
+	/**
+	 * Tests that an argument nesting too deep fails the invocation, and that the
+	 * exporter still serves later invocations.
+	 * 
+	 * @throws InterruptedException
+	 * @throws ExecutionException
+	 * @throws TimeoutException
+	 */
+	@Test
+	public void testTooDeepArgument() throws InterruptedException, ExecutionException, TimeoutException {
+		Object[] deep = new Object[1];
+		for (int i = 0; i < 12000; i++) {
+			deep = new Object[] {deep};
+		}
+		final Object argument = deep;
+		final AtomicReference<Future<String>> future = new AtomicReference<Future<String>>();
+		// Serializing the argument needs a larger stack than the default
+		Thread sender = new Thread(null, new Runnable() {
+			public void run() {
+				future.set(remoteTestActor.methodTakingObject(argument));
+			}
+		}, "deep-argument-sender", 256L * 1024L * 1024L);
+		sender.start();
+		sender.join();
+		try {
+			future.get().get(30, TimeUnit.SECONDS);
+			fail("Expected ExecutionException.");
+		}
+		catch (ExecutionException e) {
+			assertThat(e.getCause(), instanceOf(RemoteActorException.class));
+			assertThat(e.getCause().getMessage(), containsString("Can't decode arguments"));
+		}
+		assertThat(remoteTestActor.methodTakingObject(new BigDecimal("3.14")).get(30, TimeUnit.SECONDS), equalTo("3.14"));
+	}
+
+	@Test
+	public void testCodecRejectsClassesNotAllowed() throws IOException {
+		ByteBuffer frame = new Codec.FrameBuilder(Codec.RESULT, 1L).writeValue(new NotAllowed()).toFrame();
+		frame.getInt();
+		ClassFilter classFilter = new ClassFilter();
+		Codec.FrameReader reader = new Codec.FrameReader(frame.slice(), getClass().getClassLoader(), classFilter);
+		reader.readByte();
+		reader.readVarLong();
+		try {
+			reader.readValue();
+			fail("Expected InvalidClassException.");
+		}
+		catch (InvalidClassException e) {
+			assertThat(e.getMessage(), containsString(NotAllowed.class.getName()));
+		}
+		classFilter.allow(NotAllowed.class);
+		reader = new Codec.FrameReader(frame.slice(), getClass().getClassLoader(), classFilter);
+		reader.readByte();
+		reader.readVarLong();
+		assertThat(reader.readValue(), instanceOf(NotAllowed.class));
+	}
+
+	@Test
+	public void testCodecRoundTrip() throws IOException {
+		Object[] values = {null, true, false, (byte) -7, (short) 300, -1, Integer.MAX_VALUE, Long.MIN_VALUE,
+				1.5f, -2.25d, 'x', "æøå", new BigDecimal("3.14")};
+		Codec.FrameBuilder builder = new Codec.FrameBuilder(Codec.RESULT, 42L);
+		for (Object value : values) {
+			builder.writeValue(value);
+		}
+		builder.writeValue(new byte[] {1, 2, 3});
+		ByteBuffer frame = builder.toFrame();
+		assertThat(frame.getInt(), equalTo(frame.remaining()));
+		Codec.FrameReader reader = new Codec.FrameReader(frame.slice(), getClass().getClassLoader(), new ClassFilter());
+		assertThat(reader.readByte(), equalTo(Codec.RESULT));
+		assertThat(reader.readVarLong(), equalTo(42L));
+		for (Object value : values) {
+			assertThat(reader.readValue(), equalTo(value));
+		}
+		assertArrayEquals(new byte[] {1, 2, 3}, (byte[]) reader.readValue());
+	}
+
+
+	/**
+	 * Serializable, but not allowed by the exporter.
+	 */
+	static class NotAllowed implements Serializable {
+		private static final long serialVersionUID = 1L;
+	}
+
+}
@@ -0,0 +1,96 @@
+/**
+ * Copyright (C) 2026, the clanie-aspects contributors
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package dk.clanie.actor.remote;
+
+import java.io.Serializable;
+import java.util.concurrent.Future;
+
+/**
+ * Test actor interface for failure paths of remote actors.
+ */
+public interface RemoteTestActor {
+
+	/**
+	 * Fails with an IllegalStateException with the given message.
+	 * 
+	 * @param message
+	 * @return
+	 */
+	Future<Integer> methodFailing(String message);
+
+	/**
+	 * Fails with an exception which can't be serialized.
+	 * 
+	 * @return
+	 */
+	Future<Integer> methodFailingUnserializable();
+
+	/**
+	 * Returns a value which can't be serialized.
+	 * 
+	 * @return
+	 */
+	Future<Object> methodReturningUnserializable();
+
+	/**
+	 * Sleeps for the given time.
+	 * 
+	 * @param millis
+	 * @return
+	 */
+	Future<Integer> methodSleeping(long millis);
+
+	/**
+	 * @param value
+	 * @return the value's name
+	 */
+	Future<String> methodTakingValue(Value value);
+
+	/**
+	 * @param value
+	 * @return <code>String.valueOf(value)</code>
+	 */
+	Future<String> methodTakingObject(Object value);
+
+	/**
+	 * @param bytes
+	 * @return the number of bytes
+	 */
+	Future<Integer> methodTakingBytes(byte[] bytes);
+
+
+	/**
+	 * Serializable value, allowed because it's a parameter type.
+	 */
+	class Value implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private final String name;
+
+		public Value(String name) {
+			this.name = name;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+	}
+
+}
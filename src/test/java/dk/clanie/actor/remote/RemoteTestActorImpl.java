@@ -0,0 +1,85 @@
+/**
+ * Copyright (C) 2026, the clanie-aspects contributors
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package dk.clanie.actor.remote;
+
+import java.util.concurrent.Future;
+
+import org.springframework.scheduling.annotation.AsyncResult;
+
+import dk.clanie.actor.Actor;
+
+/**
+ * Test actor for failure paths of remote actors.
+ */
+@Actor
+public class RemoteTestActorImpl implements RemoteTestActor {
+
+	@Override
+	public Future<Integer> methodFailing(String message) {
+		throw new IllegalStateException(message);
+	}
+
+	@Override
+	public Future<Integer> methodFailingUnserializable() {
+		throw new UnserializableException();
+	}
+
+	@Override
+	public Future<Object> methodReturningUnserializable() {
+		return new AsyncResult<Object>(new Object());
+	}
+
+	@Override
+	public Future<Integer> methodSleeping(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return new AsyncResult<Integer>(0);
+	}
+
+	@Override
+	public Future<String> methodTakingValue(Value value) {
+		return new AsyncResult<String>(value.getName());
+	}
+
+	@Override
+	public Future<String> methodTakingObject(Object value) {
+		return new AsyncResult<String>(String.valueOf(value));
+	}
+
+	@Override
+	public Future<Integer> methodTakingBytes(byte[] bytes) {
+		return new AsyncResult<Integer>(bytes.length);
+	}
+
+
+	/**
+	 * Exception with a field which can't be serialized.
+	 */
+	static class UnserializableException extends RuntimeException {
+
+		private static final long serialVersionUID = 1L;
+
+		@SuppressWarnings("unused")
+		private final Object state = new Object();
+
+	}
+
+}
@@ -0,0 +1,226 @@
+/**
+ * Copyright (C) 2026, the clanie-aspects contributors
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package dk.clanie.bulkhead;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Test Bulkhead, BulkheadAspect and BulkheadLimiter.
+ */
+public class BulkheadTest {
+
+	@Test
+	public void testLimit() throws Exception {
+		CountDownLatch entered = new CountDownLatch(2);
+		CountDownLatch release = new CountDownLatch(1);
+		Thread first = startBlocking(entered, release);
+		Thread second = startBlocking(entered, release);
+		assertThat(entered.await(5, TimeUnit.SECONDS), equalTo(true));
+		try {
+			block(new CountDownLatch(1), new CountDownLatch(0));
+			fail("Expected BulkheadFullException.");
+		}
+		catch (BulkheadFullException e) {
+			assertThat(e.getBulkheadName(), equalTo(limiterOf("block").getName()));
+		}
+		release.countDown();
+		first.join();
+		second.join();
+		block(new CountDownLatch(1), new CountDownLatch(0));
+
+		BulkheadLimiter limiter = limiterOf("block");
+		assertThat(limiter.getLimit(), equalTo(2));
+		assertThat(limiter.getInFlight(), equalTo(0));
+		assertThat(limiter.getAccepted(), equalTo(3L));
+		assertThat(limiter.getRejected(), equalTo(1L));
+	}
+
+	@Test
+	public void testGroup() throws Exception {
+		final CountDownLatch entered = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		Thread thread = new Thread() {
+			@Override
+			public void run() {
+				grouped(entered, release);
+			}
+		};
+		thread.start();
+		assertThat(entered.await(5, TimeUnit.SECONDS), equalTo(true));
+		try {
+			alsoGrouped();
+			fail("Expected BulkheadFullException.");
+		}
+		catch (BulkheadFullException e) {
+			assertThat(e.getBulkheadName(), equalTo("testGroup"));
+		}
+		release.countDown();
+		thread.join();
+		alsoGrouped();
+		BulkheadLimiter limiter = BulkheadAspect.aspectOf().getLimiter("testGroup");
+		assertThat(limiter.getAccepted(), equalTo(2L));
+		assertThat(limiter.getRejected(), equalTo(1L));
+	}
+
+	@Test
+	public void testFailure() {
+		try {
+			failing();
+			fail("Expected IllegalStateException.");
+		}
+		catch (IllegalStateException e) {
+		}
+		BulkheadLimiter limiter = limiterOf("failing");
+		assertThat(limiter.getInFlight(), equalTo(0));
+		assertThat(limiter.getFailed(), equalTo(1L));
+	}
+
+	@Test
+	public void testAdaptive() {
+		final long target = TimeUnit.MILLISECONDS.toNanos(1);
+		final long[] now = new long[1];
+		BulkheadLimiter limiter = new BulkheadLimiter("adaptive", null, true, 2, 10, 20, target,
+				new BulkheadLimiter.Clock() {
+					public long nanoTime() {
+						return now[0];
+					}
+				});
+
+		// Fast executions while well utilized grow the limit.
+		for (int i = 0; i < 100; i++) {
+			for (int j = 0; j < 10; j++) {
+				limiter.tryAcquire();
+			}
+			for (int j = 0; j < 10; j++) {
+				limiter.release(target / 2, false);
+			}
+		}
+		assertThat(limiter.getLimit(), equalTo(20));
+
+		// Slow executions shrink it, once per target latency period.
+		now[0] += 2 * target;
+		limiter.tryAcquire();
+		limiter.release(target * 2, false);
+		limiter.tryAcquire();
+		limiter.release(target * 2, false);
+		assertThat(limiter.getLimit(), equalTo(18));
+		for (int i = 0; i < 30; i++) {
+			now[0] += 2 * target;
+			limiter.tryAcquire();
+			limiter.release(target * 2, false);
+		}
+		assertThat(limiter.getLimit(), equalTo(2));
+
+		// A fast execution without load doesn't grow it.
+		limiter.tryAcquire();
+		limiter.release(target / 2, false);
+		assertThat(limiter.getLimit(), lessThan(3));
+		assertThat(limiter.getSlow(), equalTo(32L));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testAdaptiveBoundsChecked() {
+		new BulkheadLimiter("bounds", null, true, 5, 2, 10, 1000000L);
+	}
+
+	@Test
+	public void testGroupMismatch() {
+		// Rejected when the group is first used, by any of its methods.
+		try {
+			mismatchFirst();
+			fail("Expected IllegalStateException.");
+		}
+		catch (IllegalStateException e) {
+		}
+		try {
+			mismatchSecond();
+			fail("Expected IllegalStateException.");
+		}
+		catch (IllegalStateException e) {
+		}
+		assertThat(BulkheadAspect.aspectOf().getLimiter("testMismatch"), nullValue());
+	}
+
+	private static BulkheadLimiter limiterOf(String method) {
+		for (BulkheadLimiter limiter : BulkheadAspect.aspectOf().getLimiters().values()) {
+			if (limiter.getName().contains(BulkheadTest.class.getName() + "." + method + "(")) {
+				return limiter;
+			}
+		}
+		throw new AssertionError("No limiter for " + method);
+	}
+
+	private Thread startBlocking(final CountDownLatch entered, final CountDownLatch release) {
+		Thread thread = new Thread() {
+			@Override
+			public void run() {
+				block(entered, release);
+			}
+		};
+		thread.start();
+		return thread;
+	}
+
+	@Bulkhead(maxConcurrent = 2)
+	void block(CountDownLatch entered, CountDownLatch release) {
+		entered.countDown();
+		await(release);
+	}
+
+	@Bulkhead(value = "testGroup", maxConcurrent = 1)
+	void grouped(CountDownLatch entered, CountDownLatch release) {
+		entered.countDown();
+		await(release);
+	}
+
+	@Bulkhead(value = "testGroup", maxConcurrent = 1)
+	void alsoGrouped() {
+	}
+
+	@Bulkhead(value = "testMismatch", maxConcurrent = 1)
+	void mismatchFirst() {
+	}
+
+	@Bulkhead(value = "testMismatch", maxConcurrent = 2)
+	void mismatchSecond() {
+	}
+
+	@Bulkhead
+	void failing() {
+		throw new IllegalStateException();
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
@@ -0,0 +1,381 @@
+/**
+ * Copyright (C) 2026, the clanie-aspects contributors
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package dk.clanie.loadtest;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.beans.factory.support.BeanDefinitionBuilder;
+import org.springframework.beans.factory.support.ManagedList;
+import org.springframework.context.support.GenericApplicationContext;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import dk.clanie.actor.ActorAnnotationBeanPostProcessor;
+import dk.clanie.actor.ActorFuture;
+import dk.clanie.actor.AffinityDispatcher;
+import dk.clanie.actor.FutureCallback;
+
+/**
+ * Load test harness for actors.
+ * <p/>
+ * Drives a topology of {@link StageActor}s at a fixed, open-loop arrival rate
+ * and reports latency percentiles, failed requests, the maximum mailbox size
+ * of each actor and garbage collection activity during the measurement.<br/>
+ * Latencies are measured from each request's intended send time, correcting
+ * for coordinated omission (see {@link Request}).
+ * <p/>
+ * Garbage collection pauses are recorded from the notifications HotSpot sends
+ * after each collection (Java 7u4 and later), with millisecond resolution.
+ * Concurrent collectors, like CMS, report the duration of their whole cycle,
+ * including the phases not pausing the application, so for those the pause
+ * times are an upper bound.
+ * <p/>
+ * Configured with system properties:
+ * <ul>
+ * <li><code>loadtest.topology</code> - <code>pipeline</code> (a chain of actors, each
+ * passing requests on to the next), <code>fanout</code> (one actor passing each
+ * request on to all the others) or <code>chain</code> (request/response through a
+ * chain of actors, each waiting for the next one's response). Default <code>pipeline</code>.</li>
+ * <li><code>loadtest.actors</code> - number of actors; at least 2 for <code>fanout</code>. Default 4.</li>
+ * <li><code>loadtest.rate</code> - requests per second. Default 2000.</li>
+ * <li><code>loadtest.work</code> - microseconds of CPU work per message. Default 50.</li>
+ * <li><code>loadtest.warmup</code> - seconds of warm-up before measuring. Default 5.</li>
+ * <li><code>loadtest.duration</code> - seconds of measurement. Default 30.</li>
+ * <li><code>loadtest.dispatcher</code> - <code>thread</code> (a thread per actor) or
+ * <code>affinity</code> ({@link dk.clanie.actor.AffinityDispatcher}). Default <code>thread</code>.
+ * The <code>chain</code> topology blocks a worker per waiting actor, so it needs
+ * more workers than actors with the <code>affinity</code> dispatcher.</li>
+ * <li><code>loadtest.workers</code> - number of worker threads for the <code>affinity</code>
+ * dispatcher. Default is the number of available processors.</li>
+ * </ul>
+ * Run from the test classpath, for example:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=dk.clanie.loadtest.ActorLoadHarness \
+ *     -Dloadtest.topology=fanout -Dloadtest.rate=5000
+ * </pre>
+ */
+public class ActorLoadHarness {
+
+	private static final String PIPELINE = "pipeline";
+	private static final String FANOUT = "fanout";
+	private static final String CHAIN = "chain";
+
+	private static final String THREAD = "thread";
+	private static final String AFFINITY = "affinity";
+
+	private static final double[] PERCENTILES = {50d, 90d, 99d, 99.9d, 99.99d};
+
+	private final String topology = System.getProperty("loadtest.topology", PIPELINE);
+	private final int actors = Integer.getInteger("loadtest.actors", 4);
+	private final int rate = Integer.getInteger("loadtest.rate", 2000);
+	private final long workMicros = Long.getLong("loadtest.work", 50L);
+	private final int warmupSeconds = Integer.getInteger("loadtest.warmup", 5);
+	private final int durationSeconds = Integer.getInteger("loadtest.duration", 30);
+	private final String dispatcher = System.getProperty("loadtest.dispatcher", THREAD);
+	private final int workers = Integer.getInteger("loadtest.workers", Runtime.getRuntime().availableProcessors());
+
+	private final LatencyHistogram histogram = new LatencyHistogram();
+	private final LatencyHistogram warmupHistogram = new LatencyHistogram();
+	private final Map<String, Integer> maxQueueSizes = new TreeMap<String, Integer>();
+	private final FailureCounter failures = new FailureCounter();
+	private final FailureCounter warmupFailures = new FailureCounter();
+	private final AtomicReference<Throwable> firstFailure = new AtomicReference<Throwable>();
+	private final LatencyHistogram gcPauses = new LatencyHistogram();
+
+	private GenericApplicationContext context;
+	private ActorAnnotationBeanPostProcessor actorPostProcessor;
+	private Stage root;
+	private volatile boolean measuring = false;
+
+
+	public static void main(String[] args) throws Exception {
+		new ActorLoadHarness().run();
+	}
+
+
+	public void run() throws InterruptedException {
+		if (!PIPELINE.equals(topology) && !FANOUT.equals(topology) && !CHAIN.equals(topology)) {
+			throw new IllegalArgumentException("Unknown topology: " + topology);
+		}
+		if (!THREAD.equals(dispatcher) && !AFFINITY.equals(dispatcher)) {
+			throw new IllegalArgumentException("Unknown dispatcher: " + dispatcher);
+		}
+		if (actors < (FANOUT.equals(topology) ? 2 : 1)) {
+			throw new IllegalArgumentException("Too few actors for topology " + topology + ": " + actors);
+		}
+		System.out.println("Topology: " + topology + ", actors: " + actors + ", rate: " + rate
+				+ "/s, work: " + workMicros + "us, warm-up: " + warmupSeconds + "s, duration: " + durationSeconds + "s"
+				+ ", dispatcher: " + dispatcher + (AFFINITY.equals(dispatcher) ? " (" + workers + " workers)" : ""));
+		createContext();
+		NotificationListener gcPauseListener = startGcPauseListener();
+		try {
+			Thread sampler = startQueueSampler();
+			long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+			long start = System.nanoTime();
+			long measureStart = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+			long end = measureStart + TimeUnit.SECONDS.toNanos(durationSeconds);
+			Map<String, long[]> gcAtStart = null;
+			long sent = 0L;
+			long measuredSent = 0L;
+			for (long i = 0L; ; i++) {
+				long intended = start + i * intervalNanos;
+				if (intended - end >= 0L) {
+					break;
+				}
+				if (!measuring && intended - measureStart >= 0L) {
+					synchronized (maxQueueSizes) {
+						maxQueueSizes.clear();
+					}
+					gcAtStart = gcSnapshot();
+					measuring = true;
+				}
+				long now;
+				while ((now = System.nanoTime()) - intended < 0L) {
+					LockSupport.parkNanos(intended - now);
+				}
+				send(intended, measuring);
+				sent++;
+				if (measuring) {
+					measuredSent++;
+				}
+			}
+			awaitCompletion(measuredSent);
+			measuring = false;
+			sampler.interrupt();
+			report(measuredSent, gcAtStart, gcSnapshot());
+			System.out.println("Total requests sent: " + sent);
+		}
+		finally {
+			stopGcPauseListener(gcPauseListener);
+			context.close();
+		}
+	}
+
+	private void createContext() {
+		context = new GenericApplicationContext();
+		BeanDefinitionBuilder postProcessor = BeanDefinitionBuilder.rootBeanDefinition(ActorAnnotationBeanPostProcessor.class);
+		if (AFFINITY.equals(dispatcher)) {
+			context.registerBeanDefinition("dispatcher",
+					BeanDefinitionBuilder.rootBeanDefinition(AffinityDispatcher.class).addConstructorArgValue(workers).getBeanDefinition());
+			postProcessor.addPropertyReference("dispatcher", "dispatcher");
+		}
+		context.registerBeanDefinition("actorAnnotationBeanPostProcessor", postProcessor.getBeanDefinition());
+		if (FANOUT.equals(topology)) {
+			ManagedList<RuntimeBeanReference> children = new ManagedList<RuntimeBeanReference>();
+			for (int i = 1; i < actors; i++) {
+				registerStage(i, null);
+				children.add(new RuntimeBeanReference(stageName(i)));
+			}
+			context.registerBeanDefinition(stageName(0), stageDefinition().addPropertyValue("children", children).getBeanDefinition());
+		}
+		else {
+			for (int i = 0; i < actors; i++) {
+				registerStage(i, i + 1 < actors ? stageName(i + 1) : null);
+			}
+		}
+		context.refresh();
+		actorPostProcessor = context.getBean(ActorAnnotationBeanPostProcessor.class);
+		root = context.getBean(stageName(0), Stage.class);
+	}
+
+	private void registerStage(int index, String next) {
+		BeanDefinitionBuilder builder = stageDefinition();
+		if (next != null) {
+			builder.addPropertyReference("next", next);
+		}
+		context.registerBeanDefinition(stageName(index), builder.getBeanDefinition());
+	}
+
+	private BeanDefinitionBuilder stageDefinition() {
+		return BeanDefinitionBuilder.rootBeanDefinition(StageActor.class).addPropertyValue("workMicros", workMicros);
+	}
+
+	private static String stageName(int index) {
+		return "stage" + index;
+	}
+
+	private void send(long intendedStartNanos, boolean measured) {
+		LatencyHistogram target = measured ? histogram : warmupHistogram;
+		FailureCounter failureCounter = measured ? failures : warmupFailures;
+		if (PIPELINE.equals(topology)) {
+			root.pipeline(new Request(intendedStartNanos, 1, target, failureCounter));
+		}
+		else if (FANOUT.equals(topology)) {
+			root.fanOut(new Request(intendedStartNanos, actors - 1, target, failureCounter));
+		}
+		else {
+			final Request request = new Request(intendedStartNanos, 1, target, failureCounter);
+			((ActorFuture<?>) root.request(request)).addCallback(new FutureCallback<Object>() {
+				public void onSuccess(Object result) {
+					request.done();
+				}
+				public void onFailure(Throwable cause) {
+					request.failed(cause);
+				}
+			});
+		}
+	}
+
+	/**
+	 * Wait for the requests sent during measurement to complete or fail, up to 30 seconds.
+	 */
+	private void awaitCompletion(long measuredSent) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+		while (histogram.getTotalCount() + failures.count.get() < measuredSent && System.nanoTime() - deadline < 0L) {
+			Thread.sleep(10);
+		}
+	}
+
+	private Thread startQueueSampler() {
+		Thread sampler = new Thread("loadtest-queue-sampler") {
+			@Override
+			public void run() {
+				while (!isInterrupted()) {
+					if (measuring) {
+						synchronized (maxQueueSizes) {
+							for (Map.Entry<String, Integer> entry : actorPostProcessor.getQueueSizes().entrySet()) {
+								Integer max = maxQueueSizes.get(entry.getKey());
+								if (max == null || entry.getValue() > max) {
+									maxQueueSizes.put(entry.getKey(), entry.getValue());
+								}
+							}
+						}
+					}
+					try {
+						Thread.sleep(10);
+					}
+					catch (InterruptedException e) {
+						return;
+					}
+				}
+			}
+		};
+		sampler.setDaemon(true);
+		sampler.start();
+		return sampler;
+	}
+
+	/**
+	 * Record the duration of each garbage collection while measuring.
+	 */
+	private NotificationListener startGcPauseListener() {
+		NotificationListener listener = new NotificationListener() {
+			public void handleNotification(Notification notification, Object handback) {
+				if (measuring && GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+					GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+					gcPauses.record(TimeUnit.MILLISECONDS.toMicros(info.getGcInfo().getDuration()));
+				}
+			}
+		};
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			if (gc instanceof NotificationEmitter) {
+				((NotificationEmitter) gc).addNotificationListener(listener, null, null);
+			}
+		}
+		return listener;
+	}
+
+	private static void stopGcPauseListener(NotificationListener listener) {
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			if (gc instanceof NotificationEmitter) {
+				try {
+					((NotificationEmitter) gc).removeNotificationListener(listener);
+				}
+				catch (ListenerNotFoundException e) {
+					// Not registered with this collector
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return collection count and accumulated time by garbage collector name
+	 */
+	private static Map<String, long[]> gcSnapshot() {
+		Map<String, long[]> snapshot = new HashMap<String, long[]>();
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			snapshot.put(gc.getName(), new long[] {gc.getCollectionCount(), gc.getCollectionTime()});
+		}
+		return snapshot;
+	}
+
+	private void report(long measuredSent, Map<String, long[]> gcAtStart, Map<String, long[]> gcAtEnd) {
+		System.out.println();
+		System.out.println("Requests: sent " + measuredSent + ", completed " + histogram.getTotalCount()
+				+ ", failed " + failures.count.get() + " in " + durationSeconds + "s");
+		Throwable failure = firstFailure.get();
+		if (failure != null) {
+			System.out.println("First failure:");
+			failure.printStackTrace(System.out);
+		}
+		System.out.println("Latency (us, corrected for coordinated omission):");
+		for (double percentile : PERCENTILES) {
+			System.out.println(String.format("  p%-6s %10d", percentile, histogram.getValueAtPercentile(percentile)));
+		}
+		System.out.println(String.format("  %-7s %10d", "max", histogram.getMax()));
+		System.out.println("Max queue size:");
+		synchronized (maxQueueSizes) {
+			for (Map.Entry<String, Integer> entry : maxQueueSizes.entrySet()) {
+				System.out.println(String.format("  %-20s %10d", entry.getKey(), entry.getValue()));
+			}
+		}
+		System.out.println("Garbage collection:");
+		List<String> names = new ArrayList<String>(gcAtEnd.keySet());
+		for (String name : names) {
+			long[] end = gcAtEnd.get(name);
+			long[] start = gcAtStart != null && gcAtStart.containsKey(name) ? gcAtStart.get(name) : new long[2];
+			System.out.println(String.format("  %-20s %6d collections, %6d ms", name, end[0] - start[0], end[1] - start[1]));
+		}
+		System.out.println(String.format("  %-20s %6d pauses, max %6d ms, p99 %6d ms", "all collectors", gcPauses.getTotalCount(),
+				gcPauses.getMax() / 1000L, gcPauses.getValueAtPercentile(99d) / 1000L));
+	}
+
+
+	/**
+	 * Counts failed requests, remembering the first failure.
+	 */
+	private class FailureCounter implements Request.FailureListener {
+
+		final AtomicLong count = new AtomicLong();
+
+		public void failed(Throwable cause) {
+			count.incrementAndGet();
+			firstFailure.compareAndSet(null, cause);
+		}
+
+	}
+
+}
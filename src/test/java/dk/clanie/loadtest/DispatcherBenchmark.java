@@ -0,0 +1,138 @@
+/**
+ * Copyright (C) 2026, the clanie-aspects contributors
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package dk.clanie.loadtest;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.support.BeanDefinitionBuilder;
+import org.springframework.context.support.GenericApplicationContext;
+
+import dk.clanie.actor.ActorAnnotationBeanPostProcessor;
+import dk.clanie.actor.AffinityDispatcher;
+
+/**
+ * Compares the throughput of chained actor pipelines with a thread per actor
+ * and with the {@link AffinityDispatcher}.
+ * <p/>
+ * Sends requests through a number of independent pipelines as fast as possible
+ * and reports the number of messages processed per second. Configured with
+ * system properties:
+ * <ul>
+ * <li><code>benchmark.pipelines</code> - number of pipelines. Default 4.</li>
+ * <li><code>benchmark.stages</code> - number of actors in each pipeline. Default 8.</li>
+ * <li><code>benchmark.requests</code> - requests per pipeline per round. Default 200000.</li>
+ * <li><code>benchmark.work</code> - microseconds of CPU work per message. Default 0.</li>
+ * <li><code>benchmark.workers</code> - number of worker threads for the dispatcher.
+ * Default is the number of available processors.</li>
+ * </ul>
+ * Run from the test classpath, for example:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=dk.clanie.loadtest.DispatcherBenchmark
+ * </pre>
+ */
+public class DispatcherBenchmark {
+
+	private static final int ROUNDS = 5;
+
+	private final int pipelines = Integer.getInteger("benchmark.pipelines", 4);
+	private final int stages = Integer.getInteger("benchmark.stages", 8);
+	private final int requests = Integer.getInteger("benchmark.requests", 200000);
+	private final long workMicros = Long.getLong("benchmark.work", 0L);
+	private final int workers = Integer.getInteger("benchmark.workers", Runtime.getRuntime().availableProcessors());
+
+
+	public static void main(String[] args) throws InterruptedException {
+		new DispatcherBenchmark().run();
+	}
+
+
+	public void run() throws InterruptedException {
+		System.out.println("Pipelines: " + pipelines + ", stages: " + stages + ", requests: " + requests
+				+ ", work: " + workMicros + "us, workers: " + workers);
+		for (int round = 1; round <= ROUNDS; round++) {
+			System.out.println("Round " + round + (round == 1 ? " (warm-up)" : ""));
+			measure(false);
+			measure(true);
+		}
+	}
+
+	private void measure(boolean affinity) throws InterruptedException {
+		GenericApplicationContext context = createContext(affinity);
+		try {
+			Stage[] heads = new Stage[pipelines];
+			for (int p = 0; p < pipelines; p++) {
+				heads[p] = context.getBean(stageName(p, 0), Stage.class);
+			}
+			LatencyHistogram histogram = new LatencyHistogram();
+			final AtomicLong failures = new AtomicLong();
+			Request.FailureListener failureListener = new Request.FailureListener() {
+				public void failed(Throwable cause) {
+					failures.incrementAndGet();
+				}
+			};
+			long start = System.nanoTime();
+			for (int i = 0; i < requests; i++) {
+				for (Stage head : heads) {
+					head.pipeline(new Request(System.nanoTime(), 1, histogram, failureListener));
+				}
+			}
+			long expected = (long) requests * pipelines;
+			while (histogram.getTotalCount() + failures.get() < expected) {
+				Thread.sleep(1);
+			}
+			long elapsed = System.nanoTime() - start;
+			double messagesPerSecond = (double) expected * stages / elapsed * TimeUnit.SECONDS.toNanos(1);
+			System.out.println(String.format("  %-20s %12.0f messages/s, latency p50 %6d us, p99 %6d us, %d failed",
+					affinity ? "affinity dispatcher" : "thread per actor", messagesPerSecond,
+					histogram.getValueAtPercentile(50d), histogram.getValueAtPercentile(99d), failures.get()));
+		}
+		finally {
+			context.close();
+		}
+	}
+
+	private GenericApplicationContext createContext(boolean affinity) {
+		GenericApplicationContext context = new GenericApplicationContext();
+		BeanDefinitionBuilder postProcessor = BeanDefinitionBuilder.rootBeanDefinition(ActorAnnotationBeanPostProcessor.class);
+		if (affinity) {
+			context.registerBeanDefinition("dispatcher",
+					BeanDefinitionBuilder.rootBeanDefinition(AffinityDispatcher.class).addConstructorArgValue(workers).getBeanDefinition());
+			postProcessor.addPropertyReference("dispatcher", "dispatcher");
+		}
+		context.registerBeanDefinition("actorAnnotationBeanPostProcessor", postProcessor.getBeanDefinition());
+		for (int p = 0; p < pipelines; p++) {
+			for (int s = 0; s < stages; s++) {
+				BeanDefinitionBuilder stage = BeanDefinitionBuilder.rootBeanDefinition(StageActor.class)
+						.addPropertyValue("workMicros", workMicros);
+				if (s + 1 < stages) {
+					stage.addPropertyReference("next", stageName(p, s + 1));
+				}
+				context.registerBeanDefinition(stageName(p, s), stage.getBeanDefinition());
+			}
+		}
+		context.refresh();
+		return context;
+	}
+
+	private static String stageName(int pipeline, int stage) {
+		return "pipeline" + pipeline + "stage" + stage;
+	}
+
+}
@@ -0,0 +1,113 @@
+/**
+ * Copyright (C) 2026, the clanie-aspects contributors
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package dk.clanie.loadtest;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock free histogram of latencies in microseconds.
+ * <p/>
+ * Values below 128 are recorded exactly; larger values in buckets with a
+ * relative width of less than 2% (64 buckets per power of two), in the spirit
+ * of HdrHistogram. The maximum is recorded exactly.
+ */
+public class LatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 6;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int LINEAR_BUCKETS = 2 * SUB_BUCKETS;
+	private static final int MAX_EXPONENT = 40;
+
+	private final AtomicLongArray counts = new AtomicLongArray(LINEAR_BUCKETS + MAX_EXPONENT * SUB_BUCKETS);
+	private final AtomicLong totalCount = new AtomicLong();
+	private final AtomicLong max = new AtomicLong();
+
+
+	/**
+	 * Record a latency.
+	 * 
+	 * @param micros the latency in microseconds; negative values are recorded as 0
+	 */
+	public void record(long micros) {
+		if (micros < 0L) {
+			micros = 0L;
+		}
+		counts.incrementAndGet(bucket(micros));
+		totalCount.incrementAndGet();
+		long currentMax;
+		while (micros > (currentMax = max.get())) {
+			if (max.compareAndSet(currentMax, micros)) {
+				break;
+			}
+		}
+	}
+
+	public long getTotalCount() {
+		return totalCount.get();
+	}
+
+	public long getMax() {
+		return max.get();
+	}
+
+	/**
+	 * Get the value at the given percentile.
+	 * 
+	 * @param percentile between 0 and 100
+	 * @return the highest value equivalent to the value at the given percentile
+	 *         (never more than the recorded maximum), or 0 if nothing is recorded
+	 */
+	public long getValueAtPercentile(double percentile) {
+		long total = totalCount.get();
+		if (total == 0L) {
+			return 0L;
+		}
+		long rank = Math.max(1L, (long) Math.ceil(percentile / 100d * total));
+		long cumulative = 0L;
+		for (int i = 0; i < counts.length(); i++) {
+			cumulative += counts.get(i);
+			if (cumulative >= rank) {
+				return Math.min(highestEquivalentValue(i), getMax());
+			}
+		}
+		return getMax();
+	}
+
+	static int bucket(long value) {
+		if (value < LINEAR_BUCKETS) {
+			return (int) value;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+		if (exponent > MAX_EXPONENT) {
+			return LINEAR_BUCKETS + MAX_EXPONENT * SUB_BUCKETS - 1;
+		}
+		int subBucket = (int) (value >>> exponent) - SUB_BUCKETS;
+		return LINEAR_BUCKETS + (exponent - 1) * SUB_BUCKETS + subBucket;
+	}
+
+	static long highestEquivalentValue(int bucket) {
+		if (bucket < LINEAR_BUCKETS) {
+			return bucket;
+		}
+		int exponent = (bucket - LINEAR_BUCKETS) / SUB_BUCKETS + 1;
+		long mantissa = (bucket - LINEAR_BUCKETS) % SUB_BUCKETS + SUB_BUCKETS;
+		return ((mantissa + 1L) << exponent) - 1L;
+	}
+
+}
@@ -0,0 +1,68 @@
+/**
+ * Copyright (C) 2026, the clanie-aspects contributors
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package dk.clanie.loadtest;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+/**
+ * Test LatencyHistogram.
+ */
+public class LatencyHistogramTest {
+
+	@Test
+	public void testBucketBoundaries() {
+		for (long value = 0L; value < 1000000L; value++) {
+			int bucket = LatencyHistogram.bucket(value);
+			assertThat(LatencyHistogram.highestEquivalentValue(bucket), greaterThanOrEqualTo(value));
+			if (bucket > 0) {
+				assertThat(LatencyHistogram.highestEquivalentValue(bucket - 1), lessThanOrEqualTo(value - 1));
+			}
+		}
+	}
+
+	@Test
+	public void testPercentiles() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (long value = 1L; value <= 10000L; value++) {
+			histogram.record(value);
+		}
+		assertThat(histogram.getTotalCount(), equalTo(10000L));
+		assertThat(histogram.getMax(), equalTo(10000L));
+		assertWithinTwoPercent(histogram.getValueAtPercentile(50d), 5000L);
+		assertWithinTwoPercent(histogram.getValueAtPercentile(99d), 9900L);
+		assertThat(histogram.getValueAtPercentile(100d), equalTo(10000L));
+	}
+
+	@Test
+	public void testEmpty() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		assertThat(histogram.getTotalCount(), equalTo(0L));
+		assertThat(histogram.getValueAtPercentile(99d), equalTo(0L));
+	}
+
+	private static void assertWithinTwoPercent(long actual, long expected) {
+		assertThat(actual, greaterThanOrEqualTo(expected));
+		assertThat(actual, lessThanOrEqualTo(expected + expected / 50));
+	}
+
+}
@@ -0,0 +1,87 @@
+/**
+ * Copyright (C) 2026, the clanie-aspects contributors
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package dk.clanie.loadtest;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A request sent through the actors by {@link ActorLoadHarness}.
+ * <p/>
+ * Latency is measured from the time the request was <em>intended</em> to be
+ * sent according to the arrival schedule, not from when it was actually sent.
+ * This corrects for coordinated omission: if the load generator falls behind,
+ * the delay is counted against the system instead of being silently dropped.
+ * <p/>
+ * A request either completes, when all its parts are done, or fails, when the
+ * first of its parts fails - never both.
+ */
+public class Request {
+
+	private final long intendedStartNanos;
+	private final AtomicInteger remaining;
+	private final LatencyHistogram histogram;
+	private final FailureListener failureListener;
+
+
+	/**
+	 * Create a new Request.
+	 * 
+	 * @param intendedStartNanos scheduled send time, from <code>System.nanoTime()</code>
+	 * @param parts number of times {@link #done()} must be called to complete the request
+	 * @param histogram histogram recording the latency
+	 * @param failureListener notified if the request fails
+	 */
+	public Request(long intendedStartNanos, int parts, LatencyHistogram histogram, FailureListener failureListener) {
+		this.intendedStartNanos = intendedStartNanos;
+		this.remaining = new AtomicInteger(parts);
+		this.histogram = histogram;
+		this.failureListener = failureListener;
+	}
+
+
+	/**
+	 * Complete one part of the request, recording the latency when all parts are done.
+	 */
+	public void done() {
+		if (remaining.decrementAndGet() == 0) {
+			histogram.record((System.nanoTime() - intendedStartNanos) / 1000L);
+		}
+	}
+
+	/**
+	 * Fail the request, unless it has already completed or failed.
+	 * 
+	 * @param cause the failure
+	 */
+	public void failed(Throwable cause) {
+		if (remaining.getAndSet(-1) > 0) {
+			failureListener.failed(cause);
+		}
+	}
+
+
+	/**
+	 * Notified when a request fails.
+	 */
+	public interface FailureListener {
+
+		void failed(Throwable cause);
+
+	}
+
+}
@@ -0,0 +1,50 @@
+/**
+ * Copyright (C) 2026, the clanie-aspects contributors
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package dk.clanie.loadtest;
+
+import java.util.concurrent.Future;
+
+/**
+ * Actor interface used by {@link ActorLoadHarness}.
+ */
+public interface Stage {
+
+	/**
+	 * Process the request and pass it on to the next stage, if any.
+	 * The last stage completes the request.
+	 */
+	void pipeline(Request request);
+
+	/**
+	 * Process the request and pass it on to all child stages.
+	 */
+	void fanOut(Request request);
+
+	/**
+	 * Process the request as a leaf stage, completing one part of it.
+	 */
+	void leaf(Request request);
+
+	/**
+	 * Process the request, call the next stage and wait for its response.
+	 * 
+	 * @return the number of stages involved
+	 */
+	Future<Integer> request(Request request);
+
+}
@@ -0,0 +1,126 @@
+/**
+ * Copyright (C) 2026, the clanie-aspects contributors
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package dk.clanie.loadtest;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import org.springframework.scheduling.annotation.AsyncResult;
+
+import dk.clanie.actor.Actor;
+
+/**
+ * Actor used by {@link ActorLoadHarness}.
+ * <p/>
+ * Each message is processed by spinning for the configured amount of time,
+ * simulating CPU bound work. A failure while processing a message fails the
+ * request, so the harness doesn't wait for it to complete.
+ */
+@Actor
+public class StageActor implements Stage {
+
+	private Stage next;
+
+	private List<Stage> children;
+
+	private long workNanos;
+
+
+	public void setNext(Stage next) {
+		this.next = next;
+	}
+
+	public void setChildren(List<Stage> children) {
+		this.children = children;
+	}
+
+	public void setWorkMicros(long workMicros) {
+		this.workNanos = workMicros * 1000L;
+	}
+
+
+	@Override
+	public void pipeline(Request request) {
+		try {
+			work();
+			if (next != null) {
+				next.pipeline(request);
+			}
+			else {
+				request.done();
+			}
+		}
+		catch (Throwable ex) {
+			request.failed(ex);
+			throw ex;
+		}
+	}
+
+	@Override
+	public void fanOut(Request request) {
+		try {
+			work();
+			for (Stage child : children) {
+				child.leaf(request);
+			}
+		}
+		catch (Throwable ex) {
+			request.failed(ex);
+			throw ex;
+		}
+	}
+
+	@Override
+	public void leaf(Request request) {
+		try {
+			work();
+			request.done();
+		}
+		catch (Throwable ex) {
+			request.failed(ex);
+			throw ex;
+		}
+	}
+
+	@Override
+	public Future<Integer> request(Request request) {
+		work();
+		if (next == null) {
+			return new AsyncResult<Integer>(1);
+		}
+		try {
+			return new AsyncResult<Integer>(next.request(request).get() + 1);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		}
+		catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	private void work() {
+		long end = System.nanoTime() + workNanos;
+		while (System.nanoTime() - end < 0L) {
+			// Spin
+		}
+	}
+
+}
@@ -0,0 +1,120 @@
+/**
+ * Copyright (C) 2026, the clanie-aspects contributors
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package dk.clanie.logging;
+
+import java.lang.management.ManagementFactory;
+
+import org.slf4j.LoggerFactory;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+
+/**
+ * Compares the cost of debug logging calls from a LoggingSupport class with
+ * debug disabled, with and without guards.
+ * <p/>
+ * The <code>isDebugEnabled()</code> guard, which doesn't involve
+ * GuardedLoggingAspect, is the baseline for the cached <code>debugEnabled()</code>
+ * check the aspect introduces.<br/>
+ * Reports time and bytes allocated per call. Allocation is measured with
+ * <code>com.sun.management.ThreadMXBean</code>, so it requires a HotSpot
+ * based JVM. Run from the test classpath, for example:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=dk.clanie.logging.GuardedLoggingBenchmark
+ * </pre>
+ */
+public class GuardedLoggingBenchmark implements LoggingSupport {
+
+	private static final int ITERATIONS = 10000000;
+	private static final int ROUNDS = 5;
+
+	private static final String[] SCENARIOS = {
+		"logger().debug(\"x=\" + x)",
+		"logger().debug(\"x={}\", x)",
+		"if (logger().isDebugEnabled()) ...",
+		"if (debugEnabled()) ...",
+	};
+
+	private static final com.sun.management.ThreadMXBean threads =
+			(com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+
+	public static void main(String[] args) {
+		((Logger) LoggerFactory.getLogger(GuardedLoggingBenchmark.class)).setLevel(Level.INFO);
+		GuardedLoggingBenchmark benchmark = new GuardedLoggingBenchmark();
+		for (int round = 1; round <= ROUNDS; round++) {
+			System.out.println("Round " + round + (round == 1 ? " (warm-up)" : ""));
+			for (int scenario = 0; scenario < SCENARIOS.length; scenario++) {
+				benchmark.measure(scenario);
+			}
+		}
+	}
+
+	private void measure(int scenario) {
+		long threadId = Thread.currentThread().getId();
+		long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+		long start = System.nanoTime();
+		switch (scenario) {
+		case 0:
+			unguardedConcatenation();
+			break;
+		case 1:
+			parameterized();
+			break;
+		case 2:
+			isDebugEnabledGuard();
+			break;
+		default:
+			debugEnabledGuard();
+		}
+		long elapsed = System.nanoTime() - start;
+		long allocated = threads.getThreadAllocatedBytes(threadId) - bytesBefore;
+		System.out.println(String.format("  %-36s %8.2f ns/op %8.2f bytes/op", SCENARIOS[scenario],
+				(double) elapsed / ITERATIONS, (double) allocated / ITERATIONS));
+	}
+
+	private void unguardedConcatenation() {
+		for (int x = 0; x < ITERATIONS; x++) {
+			logger().debug("x=" + x);
+		}
+	}
+
+	private void parameterized() {
+		for (int x = 0; x < ITERATIONS; x++) {
+			logger().debug("x={}", x);
+		}
+	}
+
+	private void isDebugEnabledGuard() {
+		for (int x = 0; x < ITERATIONS; x++) {
+			if (logger().isDebugEnabled()) {
+				logger().debug("x=" + x);
+			}
+		}
+	}
+
+	private void debugEnabledGuard() {
+		for (int x = 0; x < ITERATIONS; x++) {
+			if (debugEnabled()) {
+				logger().debug("x=" + x);
+			}
+		}
+	}
+
+}
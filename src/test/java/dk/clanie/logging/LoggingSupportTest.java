@@ -22,6 +22,10 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThat;
 
 import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
 
 public class LoggingSupportTest implements LoggingSupport {
 
@@ -35,4 +39,24 @@ public class LoggingSupportTest implements LoggingSupport {
 		assertThat(logger().getName(), equalTo(getClass().getName()));
 	}
 
+	@Test
+	public void testCachedLevelsFollowLevelChanges() {
+		Logger logger = (Logger) LoggerFactory.getLogger(getClass());
+		Level originalLevel = logger.getLevel();
+		try {
+			logger.setLevel(Level.INFO);
+			assertThat(debugEnabled(), equalTo(false));
+			assertThat(traceEnabled(), equalTo(false));
+			logger.setLevel(Level.DEBUG);
+			assertThat(debugEnabled(), equalTo(true));
+			assertThat(traceEnabled(), equalTo(false));
+			logger.setLevel(Level.TRACE);
+			assertThat(debugEnabled(), equalTo(true));
+			assertThat(traceEnabled(), equalTo(true));
+		}
+		finally {
+			logger.setLevel(originalLevel);
+		}
+	}
+
 }